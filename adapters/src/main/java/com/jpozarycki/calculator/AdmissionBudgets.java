@@ -0,0 +1,86 @@
+package com.jpozarycki.calculator;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+// Each bucket is the time it will be full again (GCRA), so admitting is one compare-and-set; clients
+// that hash to the same stripe share its budget, and memory does not grow with the number of clients
+final class AdmissionBudgets {
+    // Stripes sit a cache line apart, so clients in neighbouring stripes do not contend
+    private static final int STRIDE = 8;
+    // A cost learned after admission has no upper bound, so the debt it adds is capped short of overflowing
+    private static final long MAX_DEBT_NANOS = Long.MAX_VALUE / 4;
+
+    private final AtomicLongArray fullAt;
+    private final int mask;
+    private final long nanosPerCost;
+    private final long burstCost;
+    private final long burstNanos;
+    private final LongSupplier clock;
+
+    AdmissionBudgets(int stripes, long costPerSecond, long burstCost, LongSupplier clock) {
+        int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.fullAt = new AtomicLongArray(size * STRIDE);
+        this.mask = size - 1;
+        this.nanosPerCost = Math.max(1, 1_000_000_000L / costPerSecond);
+        this.burstCost = burstCost;
+        this.burstNanos = Math.multiplyExact(burstCost, nanosPerCost);
+        this.clock = clock;
+        long now = clock.getAsLong();
+        for (int stripe = 0; stripe < size; stripe++) {
+            fullAt.set(stripe * STRIDE, now);
+        }
+    }
+
+    // Compared in cost units, so admit's charge never overflows
+    boolean fits(long cost) {
+        return cost >= 0 && cost <= burstCost;
+    }
+
+    // Returns the wait before going ahead, 0 for none, or, when that would exceed maxWaitNanos, the
+    // negated time after which the call fits, without taking anything
+    long admit(String client, long cost, long maxWaitNanos) {
+        int index = index(client);
+        long charge = cost * nanosPerCost;
+        while (true) {
+            long now = clock.getAsLong();
+            long current = fullAt.get(index);
+            long next = Math.max(current, now) + charge;
+            long wait = next - now - burstNanos;
+            if (wait > maxWaitNanos) {
+                return -wait;
+            }
+            if (fullAt.compareAndSet(index, current, next)) {
+                return Math.max(0, wait);
+            }
+        }
+    }
+
+    // Cost learned after the call was admitted, like a body of unknown length; the client pays it off later
+    void charge(String client, long cost) {
+        int index = index(client);
+        long charge = cost > MAX_DEBT_NANOS / nanosPerCost ? MAX_DEBT_NANOS : cost * nanosPerCost;
+        long now = clock.getAsLong();
+        fullAt.getAndAccumulate(index, charge, (current, added) -> {
+            long from = Math.max(current, now);
+            return from + Math.max(0, Math.min(added, MAX_DEBT_NANOS - (from - now)));
+        });
+    }
+
+    // Stripes whose budget is below the cost of an empty call
+    int exhaustedStripes(long cost) {
+        long threshold = clock.getAsLong() + burstNanos - cost * nanosPerCost;
+        int exhausted = 0;
+        for (int stripe = 0; stripe <= mask; stripe++) {
+            if (fullAt.get(stripe * STRIDE) > threshold) {
+                exhausted++;
+            }
+        }
+        return exhausted;
+    }
+
+    private int index(String client) {
+        int hash = client.hashCode();
+        return ((hash ^ (hash >>> 16)) & mask) * STRIDE;
+    }
+}
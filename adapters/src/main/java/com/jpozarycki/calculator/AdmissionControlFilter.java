@@ -0,0 +1,220 @@
+package com.jpozarycki.calculator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.jpozarycki.calculator.dto.CalculationResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// A call costs its body length plus a fixed amount, since the body bounds the tokens to evaluate;
+// chunked bodies are charged as they are read and paid off on the client's next calls
+@Component
+@ConditionalOnProperty("calculator.rate-limit.cost-per-second")
+class AdmissionControlFilter extends OncePerRequestFilter {
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AdmissionBudgets budgets;
+    private final long requestCost;
+    private final long maxWaitNanos;
+    private final String clientHeader;
+    private final ObjectWriter responseWriter;
+    private final Counter admitted;
+    private final Counter queued;
+    private final Counter rejected;
+    private final Counter tooLarge;
+    private final DistributionSummary costs;
+
+    AdmissionControlFilter(ObjectMapper objectMapper,
+                           MeterRegistry registry,
+                           @Value("${calculator.rate-limit.cost-per-second}") long costPerSecond,
+                           @Value("${calculator.rate-limit.burst-cost:0}") long burstCost,
+                           @Value("${calculator.rate-limit.request-cost:100}") long requestCost,
+                           @Value("${calculator.rate-limit.max-wait:0s}") Duration maxWait,
+                           @Value("${calculator.rate-limit.client-header:}") String clientHeader,
+                           @Value("${calculator.rate-limit.stripes:1024}") int stripes) {
+        this.budgets = new AdmissionBudgets(stripes, costPerSecond, burstCost > 0 ? burstCost : costPerSecond,
+                System::nanoTime);
+        this.requestCost = requestCost;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.clientHeader = clientHeader;
+        this.responseWriter = objectMapper.writerFor(CalculationResponse.class);
+        this.admitted = outcomeCounter(registry, "admitted");
+        this.queued = outcomeCounter(registry, "queued");
+        this.rejected = outcomeCounter(registry, "rejected");
+        this.tooLarge = outcomeCounter(registry, "too_large");
+        this.costs = DistributionSummary.builder("calculator.admission.cost")
+                .description("Estimated cost of admitted API calls")
+                .publishPercentileHistogram()
+                .register(registry);
+        Gauge.builder("calculator.admission.exhausted_budgets", budgets, b -> b.exhaustedStripes(requestCost))
+                .description("Client budgets that cannot currently pay for another call")
+                .register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String client = client(request);
+        long length = request.getContentLengthLong();
+        // A length too large to add up could never fit the burst either
+        long cost = length > Long.MAX_VALUE - requestCost ? Long.MAX_VALUE : requestCost + Math.max(0, length);
+        if (!budgets.fits(cost)) {
+            tooLarge.increment();
+            reject(response, HttpStatus.PAYLOAD_TOO_LARGE, "Request exceeds the rate limit burst");
+            return;
+        }
+        long wait = budgets.admit(client, cost, maxWaitNanos);
+        if (wait < 0) {
+            rejected.increment();
+            long retryAfterSeconds = (-wait + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND;
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, "Rate limit exceeded");
+            return;
+        }
+        if (wait > 0) {
+            queued.increment();
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                // The budget is already spent, so the call goes ahead
+                Thread.currentThread().interrupt();
+            }
+        } else {
+            admitted.increment();
+        }
+        costs.record(cost);
+
+        if (length >= 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        CountingRequest counting = new CountingRequest(request);
+        try {
+            chain.doFilter(counting, response);
+        } finally {
+            budgets.charge(client, counting.bytesRead);
+        }
+    }
+
+    // Without a configured header, or when a call does not send it, clients are told apart by address
+    private String client(HttpServletRequest request) {
+        if (!clientHeader.isEmpty()) {
+            String key = request.getHeader(clientHeader);
+            if (key != null && !key.isEmpty()) {
+                return key;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String error) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        responseWriter.writeValue(response.getOutputStream(), new CalculationResponse(null, error));
+    }
+
+    private static Counter outcomeCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("calculator.admission.requests")
+                .description("API calls by admission control outcome")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static final class CountingRequest extends HttpServletRequestWrapper {
+        private long bytesRead;
+        private ServletInputStream input;
+        private BufferedReader reader;
+
+        CountingRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (input == null) {
+                input = new CountingInputStream(super.getInputStream());
+            }
+            return input;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            if (reader == null) {
+                String encoding = getCharacterEncoding();
+                Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.ISO_8859_1;
+                reader = new BufferedReader(new InputStreamReader(getInputStream(), charset));
+            }
+            return reader;
+        }
+
+        private final class CountingInputStream extends ServletInputStream {
+            private final ServletInputStream delegate;
+
+            CountingInputStream(ServletInputStream delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public int read() throws IOException {
+                int read = delegate.read();
+                if (read >= 0) {
+                    bytesRead++;
+                }
+                return read;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int read = delegate.read(buffer, offset, length);
+                if (read > 0) {
+                    bytesRead += read;
+                }
+                return read;
+            }
+
+            @Override
+            public boolean isFinished() {
+                return delegate.isFinished();
+            }
+
+            @Override
+            public boolean isReady() {
+                return delegate.isReady();
+            }
+
+            @Override
+            public void setReadListener(ReadListener listener) {
+                delegate.setReadListener(listener);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.jpozarycki.calculator;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Spans the wait for an evaluation permit as well as the CalculationEvent recorded on the same thread
+@Name("com.jpozarycki.calculator.ApiCalculation")
+@Label("API Calculation")
+@Category("Calculator")
+@Description("One REST calculation, from the controller's point of view")
+@Enabled(false)
+@StackTrace(false)
+final class ApiCalculationEvent extends Event {
+    private static final EventType TYPE = EventType.getEventType(ApiCalculationEvent.class);
+
+    @Label("Expression Length")
+    int expressionLength;
+
+    @Label("Numeric Mode")
+    String numericMode;
+
+    @Label("Status")
+    int status;
+
+    @Label("Error")
+    String error;
+
+    static ApiCalculationEvent begin(String expression, NumericMode mode) {
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+        ApiCalculationEvent event = new ApiCalculationEvent();
+        event.expressionLength = expression == null ? 0 : expression.length();
+        event.numericMode = mode == null ? null : mode.name();
+        event.begin();
+        return event;
+    }
+
+    static void end(ApiCalculationEvent event, int status, String error) {
+        if (event != null) {
+            event.status = status;
+            event.error = error;
+            event.commit();
+        }
+    }
+}
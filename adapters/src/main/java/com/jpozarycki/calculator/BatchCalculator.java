@@ -0,0 +1,98 @@
+package com.jpozarycki.calculator;
+
+import com.jpozarycki.calculator.dto.CalculationResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+@Component
+class BatchCalculator {
+    // Evaluating an expression takes microseconds, so hand off work in chunks rather than per item
+    private static final int MIN_CHUNK_SIZE = 64;
+
+    private final CalculatorFacade calculatorFacade;
+    private final ThreadPoolTaskExecutor executor;
+    private final EvaluationPermits evaluationPermits;
+    private final int maxBatchSize;
+
+    BatchCalculator(CalculatorFacade calculatorFacade,
+                    @Qualifier("calculatorBatchExecutor") ThreadPoolTaskExecutor executor,
+                    EvaluationPermits evaluationPermits,
+                    @Value("${calculator.batch.max-size:10000}") int maxBatchSize) {
+        this.calculatorFacade = calculatorFacade;
+        this.executor = executor;
+        this.evaluationPermits = evaluationPermits;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    boolean exceedsMaxSize(List<?> items) {
+        return items.size() > maxBatchSize;
+    }
+
+    List<CalculationResponse> calculateAll(List<String> expressions, NumericMode mode) {
+        return calculateAll(expressions.size(), i -> calculate(expressions.get(i), mode));
+    }
+
+    List<CalculationResponse> calculateAll(PreparedExpression expression, List<Map<String, Integer>> bindings) {
+        return calculateAll(bindings.size(), i -> calculate(expression, bindings.get(i)));
+    }
+
+    CalculationResponse calculate(String expression, NumericMode mode) {
+        try {
+            return CalculationResponse.from(evaluationPermits.withPermit(() -> calculatorFacade.tryCalculate(expression, mode)));
+        } catch (Exception e) {
+            return new CalculationResponse(null, "Invalid expression");
+        }
+    }
+
+    CalculationResponse calculate(PreparedExpression expression, Map<String, Integer> values) {
+        return respond(() -> calculatorFacade.evaluate(expression, values != null ? values : Map.of()));
+    }
+
+    private List<CalculationResponse> calculateAll(int size, IntFunction<CalculationResponse> calculation) {
+        CalculationResponse[] responses = new CalculationResponse[size];
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, ceilDiv(size, executor.getMaxPoolSize()));
+
+        if (chunkSize >= size) {
+            calculateRange(calculation, responses, 0, size);
+            return Arrays.asList(responses);
+        }
+
+        CompletableFuture<?>[] chunks = new CompletableFuture<?>[ceilDiv(size, chunkSize)];
+        for (int chunk = 0; chunk < chunks.length; chunk++) {
+            int from = chunk * chunkSize;
+            int to = Math.min(from + chunkSize, size);
+            chunks[chunk] = CompletableFuture.runAsync(() -> calculateRange(calculation, responses, from, to), executor);
+        }
+        CompletableFuture.allOf(chunks).join();
+        return Arrays.asList(responses);
+    }
+
+    private CalculationResponse respond(Supplier<Number> calculation) {
+        try {
+            return new CalculationResponse(evaluationPermits.withPermit(calculation), null);
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            return new CalculationResponse(null, e.getMessage());
+        } catch (Exception e) {
+            return new CalculationResponse(null, "Invalid expression");
+        }
+    }
+
+    private void calculateRange(IntFunction<CalculationResponse> calculation, CalculationResponse[] responses, int from, int to) {
+        for (int i = from; i < to; i++) {
+            responses[i] = calculation.apply(i);
+        }
+    }
+
+    private static int ceilDiv(int dividend, int divisor) {
+        return (dividend + divisor - 1) / divisor;
+    }
+}
@@ -0,0 +1,20 @@
+package com.jpozarycki.calculator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+class BatchExecutorConfiguration {
+
+    @Bean
+    ThreadPoolTaskExecutor calculatorBatchExecutor(@Value("${calculator.batch.parallelism:0}") int parallelism) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("calculator-batch-");
+        return executor;
+    }
+}
@@ -1,34 +1,126 @@
 package com.jpozarycki.calculator;
 
+import com.jpozarycki.calculator.dto.BatchCalculationRequest;
 import com.jpozarycki.calculator.dto.CalculationRequest;
 import com.jpozarycki.calculator.dto.CalculationResponse;
+import com.jpozarycki.calculator.dto.PreparedCalculationRequest;
+import com.jpozarycki.calculator.dto.SessionEditRequest;
+import com.jpozarycki.calculator.dto.SessionRequest;
+import com.jpozarycki.calculator.dto.SessionResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.IntSupplier;
+
 @RequiredArgsConstructor
 @RestController
 @RequestMapping("/api/calculate")
 class CalculatorController {
     private final CalculatorFacade calculatorFacade;
+    private final BatchCalculator batchCalculator;
+    private final NdjsonStreamCalculator streamCalculator;
+    private final EvaluationPermits evaluationPermits;
+    private final ExpressionSessionFacade sessionFacade;
 
     @PostMapping
     ResponseEntity<CalculationResponse> calculate(@RequestBody @Valid CalculationRequest request) {
+        ApiCalculationEvent event = ApiCalculationEvent.begin(request.expression(), request.mode());
         try {
             String expression = request.expression();
-            int result = calculatorFacade.calculate(expression);
-            CalculationResponse response = new CalculationResponse(result, null);
+            CalculationResult result = evaluationPermits.withPermit(() -> calculatorFacade.tryCalculate(expression, request.mode()));
+            CalculationResponse response = CalculationResponse.from(result);
+            if (result instanceof CalculationResult.Failure failure) {
+                ApiCalculationEvent.end(event, HttpStatus.BAD_REQUEST.value(), failure.error().name());
+                return ResponseEntity.badRequest().body(response);
+            }
+            ApiCalculationEvent.end(event, HttpStatus.OK.value(), null);
             return ResponseEntity.ok(response);
-        } catch (IllegalArgumentException | ArithmeticException e) {
-            CalculationResponse response = new CalculationResponse(null, e.getMessage());
-            return ResponseEntity.badRequest().body(response);
         } catch (Exception e) {
+            ApiCalculationEvent.end(event, HttpStatus.BAD_REQUEST.value(), e.getClass().getSimpleName());
             CalculationResponse response = new CalculationResponse(null, "Invalid expression");
             return ResponseEntity.badRequest().body(response);
         }
     }
+
+    @PostMapping("/batch")
+    ResponseEntity<List<CalculationResponse>> calculateBatch(@RequestBody @Valid BatchCalculationRequest request) {
+        if (batchCalculator.exceedsMaxSize(request.expressions())) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        return ResponseEntity.ok(batchCalculator.calculateAll(request.expressions(), request.mode()));
+    }
+
+    @PostMapping("/prepared")
+    ResponseEntity<?> calculatePrepared(@RequestBody @Valid PreparedCalculationRequest request) {
+        if (batchCalculator.exceedsMaxSize(request.bindings())) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        PreparedExpression expression;
+        try {
+            expression = calculatorFacade.prepare(request.expression());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new CalculationResponse(null, e.getMessage()));
+        }
+        return ResponseEntity.ok(batchCalculator.calculateAll(expression, request.bindings()));
+    }
+
+    // An invalid expression is a normal state while typing, so it is reported with 200 like a valid one
+    @PostMapping("/sessions")
+    ResponseEntity<SessionResponse> openSession(@RequestBody @Valid SessionRequest request) {
+        ExpressionSession session = sessionFacade.open(request.expression());
+        return ResponseEntity.status(HttpStatus.CREATED).body(respond(session, session::value));
+    }
+
+    @PostMapping("/sessions/{id}/edits")
+    ResponseEntity<SessionResponse> editSession(@PathVariable String id, @RequestBody @Valid SessionEditRequest request) {
+        ExpressionSession session = sessionFacade.find(id).orElse(null);
+        if (session == null) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(respond(session, () -> session.edit(request.offset(), request.deleted(), request.inserted())));
+        } catch (IndexOutOfBoundsException e) {
+            return ResponseEntity.badRequest().body(new SessionResponse(id, null, e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/sessions/{id}")
+    ResponseEntity<Void> closeSession(@PathVariable String id) {
+        return sessionFacade.close(id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    @PostMapping(value = "/stream",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_PLAIN_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    void calculateStream(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (request.getCharacterEncoding() == null) {
+            request.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        }
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        streamCalculator.calculate(request.getReader(), response.getWriter());
+    }
+
+    private SessionResponse respond(ExpressionSession session, IntSupplier evaluation) {
+        try {
+            int result = evaluationPermits.withPermit(evaluation::getAsInt);
+            return new SessionResponse(session.id(), result, null);
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            return new SessionResponse(session.id(), null, e.getMessage());
+        }
+    }
 }
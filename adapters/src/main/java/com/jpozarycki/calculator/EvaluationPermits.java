@@ -0,0 +1,32 @@
+package com.jpozarycki.calculator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+// On virtual threads Tomcat accepts a request per connection, so evaluations need their own bound;
+// the platform-thread pool already is one
+@Component
+class EvaluationPermits {
+    private final Semaphore permits;
+
+    EvaluationPermits(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                      @Value("${calculator.virtual-threads.max-concurrent-evaluations:0}") int maxConcurrentEvaluations) {
+        int limit = maxConcurrentEvaluations > 0 ? maxConcurrentEvaluations : Runtime.getRuntime().availableProcessors();
+        this.permits = virtualThreads ? new Semaphore(limit, true) : null;
+    }
+
+    <T> T withPermit(Supplier<T> evaluation) {
+        if (permits == null) {
+            return evaluation.get();
+        }
+        permits.acquireUninterruptibly();
+        try {
+            return evaluation.get();
+        } finally {
+            permits.release();
+        }
+    }
+}
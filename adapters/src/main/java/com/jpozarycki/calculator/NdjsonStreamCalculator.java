@@ -0,0 +1,144 @@
+package com.jpozarycki.calculator;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.jpozarycki.calculator.dto.CalculationRequest;
+import com.jpozarycki.calculator.dto.CalculationResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+// Only the current line is buffered, and a line past max-line-length is answered with an error and
+// skipped without being kept; the blocking loop lets a slow reader throttle the producer
+@Component
+class NdjsonStreamCalculator {
+    private final BatchCalculator batchCalculator;
+    private final ObjectReader requestReader;
+    private final ObjectWriter responseWriter;
+    private final int maxLineLength;
+
+    NdjsonStreamCalculator(BatchCalculator batchCalculator,
+                           ObjectMapper objectMapper,
+                           @Value("${calculator.stream.max-line-length:1048576}") int maxLineLength) {
+        this.batchCalculator = batchCalculator;
+        this.maxLineLength = maxLineLength;
+        this.requestReader = objectMapper.readerFor(CalculationRequest.class);
+        this.responseWriter = objectMapper.writerFor(CalculationResponse.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    void calculate(Reader reader, Writer writer) throws IOException {
+        LineReader lines = new LineReader(reader, maxLineLength);
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (lines.overlong()) {
+                responseWriter.writeValue(writer, new CalculationResponse(null, "Line too long"));
+            } else if (line.isBlank()) {
+                continue;
+            } else {
+                responseWriter.writeValue(writer, calculateLine(line));
+            }
+            writer.write('\n');
+            if (!lines.ready()) {
+                // Input has caught up with us, so let the client see what is done so far
+                writer.flush();
+            }
+        }
+        writer.flush();
+    }
+
+    private CalculationResponse calculateLine(String line) {
+        String expression = line;
+        NumericMode mode = NumericMode.INT;
+        if (line.stripLeading().startsWith("{")) {
+            try {
+                CalculationRequest request = requestReader.readValue(line);
+                expression = request.expression();
+                mode = request.mode();
+            } catch (JsonProcessingException e) {
+                return new CalculationResponse(null, "Invalid request");
+            }
+        }
+        return batchCalculator.calculate(expression, mode);
+    }
+
+    // Like BufferedReader.readLine, ending lines at \n, \r or \r\n, but dropping the characters of a line past the limit
+    private static final class LineReader {
+        private final Reader reader;
+        private final int maxLength;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder line = new StringBuilder();
+        private int position;
+        private int limit;
+        private boolean skipLineFeed;
+        private boolean overlong;
+
+        LineReader(Reader reader, int maxLength) {
+            this.reader = reader;
+            this.maxLength = maxLength;
+        }
+
+        String readLine() throws IOException {
+            line.setLength(0);
+            overlong = false;
+            boolean started = false;
+            while (true) {
+                if (position == limit) {
+                    limit = Math.max(0, reader.read(buffer, 0, buffer.length));
+                    position = 0;
+                    if (limit == 0) {
+                        return started ? line.toString() : null;
+                    }
+                }
+                if (skipLineFeed) {
+                    skipLineFeed = false;
+                    if (buffer[position] == '\n') {
+                        position++;
+                        continue;
+                    }
+                }
+                started = true;
+                int start = position;
+                while (position < limit) {
+                    char ch = buffer[position];
+                    if (ch == '\n' || ch == '\r') {
+                        append(start, position++);
+                        skipLineFeed = ch == '\r';
+                        return line.toString();
+                    }
+                    position++;
+                }
+                append(start, position);
+            }
+        }
+
+        // Whether the last line read was longer than the limit, in which case it was returned empty
+        boolean overlong() {
+            return overlong;
+        }
+
+        boolean ready() throws IOException {
+            return position < limit || reader.ready();
+        }
+
+        private void append(int start, int end) {
+            if (overlong) {
+                return;
+            }
+            if (line.length() + end - start > maxLength) {
+                overlong = true;
+                line.setLength(0);
+                return;
+            }
+            line.append(buffer, start, end - start);
+        }
+    }
+}
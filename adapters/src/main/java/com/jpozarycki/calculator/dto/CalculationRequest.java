@@ -1,6 +0,0 @@
-package com.jpozarycki.calculator.dto;
-
-import jakarta.validation.constraints.NotBlank;
-
-public record CalculationRequest(@NotBlank String expression) {
-}
@@ -1,4 +0,0 @@
-package com.jpozarycki.calculator.dto;
-
-public record CalculationResponse(Integer result, String error) {
-}
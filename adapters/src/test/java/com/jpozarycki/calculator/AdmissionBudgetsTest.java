@@ -0,0 +1,77 @@
+package com.jpozarycki.calculator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionBudgetsTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong now = new AtomicLong(1_000 * SECOND);
+    // 100 per second with a burst of 500
+    private final AdmissionBudgets budgets = new AdmissionBudgets(64, 100, 500, now::get);
+
+    @Test
+    void shouldAdmitBurstThenRejectUntilRefilled() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, budgets.admit("tenant", 100, 0));
+        }
+
+        assertEquals(-SECOND, budgets.admit("tenant", 100, 0));
+        now.addAndGet(SECOND / 2);
+        assertEquals(-SECOND / 2, budgets.admit("tenant", 100, 0));
+        now.addAndGet(SECOND / 2);
+        assertEquals(0, budgets.admit("tenant", 100, 0));
+    }
+
+    @Test
+    void shouldQueueCallsThatFitWithinMaximumWait() {
+        assertEquals(0, budgets.admit("tenant", 500, 0));
+
+        assertEquals(SECOND, budgets.admit("tenant", 100, 2 * SECOND));
+        assertEquals(2 * SECOND, budgets.admit("tenant", 100, 2 * SECOND));
+        assertEquals(-3 * SECOND, budgets.admit("tenant", 100, 2 * SECOND));
+    }
+
+    @Test
+    void shouldKeepClientsApart() {
+        assertEquals(0, budgets.admit("tenant", 500, 0));
+
+        assertTrue(budgets.admit("tenant", 1, 0) < 0);
+        assertEquals(0, budgets.admit("other", 500, 0));
+        assertEquals(2, budgets.exhaustedStripes(1));
+    }
+
+    @Test
+    void shouldChargeCostLearnedAfterAdmission() {
+        assertEquals(0, budgets.admit("tenant", 100, 0));
+
+        budgets.charge("tenant", 1_400);
+
+        assertEquals(-11 * SECOND, budgets.admit("tenant", 100, 0));
+        assertEquals(1, budgets.exhaustedStripes(1));
+    }
+
+    @Test
+    void shouldTellWhetherCallCanEverFit() {
+        assertTrue(budgets.fits(500));
+        assertFalse(budgets.fits(501));
+        assertFalse(budgets.fits(9_300_000_000_000L));
+        assertFalse(budgets.fits(Long.MAX_VALUE));
+    }
+
+    @Test
+    void shouldKeepClientExhaustedAfterHugeLearnedCost() {
+        assertEquals(0, budgets.admit("tenant", 500, 0));
+
+        budgets.charge("tenant", 9_300_000_000_000L);
+        budgets.charge("tenant", Long.MAX_VALUE);
+
+        assertTrue(budgets.admit("tenant", 1, 0) < 0);
+        now.addAndGet(1_000_000 * SECOND);
+        assertTrue(budgets.admit("tenant", 1, 0) < 0);
+    }
+}
@@ -0,0 +1,107 @@
+package com.jpozarycki.calculator;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for admission control, with budgets that refill one cost unit per second.
+ */
+@SpringBootTest(properties = {
+        "calculator.rate-limit.cost-per-second=1",
+        "calculator.rate-limit.burst-cost=1000",
+        "calculator.rate-limit.request-cost=100",
+        "calculator.rate-limit.client-header=X-Client-Id"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AdmissionControlIntegrationTest {
+
+    private static final String URI = "/api/calculate";
+    // 35 bytes, so each call costs 135 and a full budget pays for 7; the 8th waits up to 80s for 55 more
+    private static final String BODY = "{\"expression\":\"2 + 3\",\"mode\":\"INT\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // ========== BUDGETS ==========
+
+    @Test
+    void shouldRejectClientOverBudgetWithRetryAfter() throws Exception {
+        // Given
+        for (int i = 0; i < 7; i++) {
+            calculate("greedy").andExpect(status().isOk());
+        }
+
+        // When & Then
+        calculate("greedy")
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", matchesPattern("[1-7]?[0-9]|80")))
+                .andExpect(jsonPath("$.error").value("Rate limit exceeded"));
+        calculate("modest")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result").value(5));
+    }
+
+    @Test
+    void shouldRejectCallLargerThanBurst() throws Exception {
+        // Given
+        String expression = "1 + ".repeat(300) + "1";
+
+        // When & Then
+        mockMvc.perform(post(URI)
+                        .header("X-Client-Id", "large")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"expression\":\"" + expression + "\"}"))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(jsonPath("$.error").value("Request exceeds the rate limit burst"));
+    }
+
+    @Test
+    void shouldNotLimitActuator() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            mockMvc.perform(get("/actuator/health").header("X-Client-Id", "monitor"))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    // ========== METRICS ==========
+
+    @Test
+    void shouldExportLimiterState() throws Exception {
+        // Given
+        double rejected = meterRegistry.get("calculator.admission.requests").tag("outcome", "rejected").counter().count();
+        for (int i = 0; i < 8; i++) {
+            calculate("metered");
+        }
+
+        // When & Then
+        assertEquals(rejected + 1,
+                meterRegistry.get("calculator.admission.requests").tag("outcome", "rejected").counter().count());
+        assertEquals(135, meterRegistry.get("calculator.admission.cost").summary().max());
+        assertTrue(meterRegistry.get("calculator.admission.exhausted_budgets").gauge().value() >= 1);
+    }
+
+    private ResultActions calculate(String client) throws Exception {
+        return mockMvc.perform(post(URI)
+                .header("X-Client-Id", client)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(BODY));
+    }
+}
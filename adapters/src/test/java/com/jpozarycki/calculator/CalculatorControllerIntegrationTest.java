@@ -1,15 +1,31 @@
 package com.jpozarycki.calculator;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jpozarycki.calculator.dto.BatchCalculationRequest;
 import com.jpozarycki.calculator.dto.CalculationRequest;
+import com.jpozarycki.calculator.dto.PreparedCalculationRequest;
+import com.jpozarycki.calculator.dto.SessionEditRequest;
+import com.jpozarycki.calculator.dto.SessionRequest;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -18,10 +34,16 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  */
 @SpringBootTest
 @AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
 @ActiveProfiles("test")
 class CalculatorControllerIntegrationTest {
 
     private static final String URI = "/api/calculate";
+    private static final String BATCH_URI = "/api/calculate/batch";
+    private static final String STREAM_URI = "/api/calculate/stream";
+    private static final String PREPARED_URI = "/api/calculate/prepared";
+    private static final String SESSIONS_URI = "/api/calculate/sessions";
+    private static final String PROMETHEUS_URI = "/actuator/prometheus";
 
     @Autowired
     private MockMvc mockMvc;
@@ -118,7 +140,7 @@ class CalculatorControllerIntegrationTest {
     @Test
     void shouldHandleInvalidExpressionFormat() throws Exception {
         // Given
-        CalculationRequest request = new CalculationRequest("2 + + 3");
+        CalculationRequest request = new CalculationRequest("2 + * 3");
 
         // When & Then
         mockMvc.perform(post(URI)
@@ -256,4 +278,335 @@ class CalculatorControllerIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.result").value(100));
     }
-} 
\ No newline at end of file
+
+    // ========== NUMERIC MODES ==========
+
+    @Test
+    void shouldEvaluateBeyondIntRangeInLongMode() throws Exception {
+        // When & Then
+        mockMvc.perform(post(URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"expression\": \"2147483647 + 1\", \"mode\": \"long\"}"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"result\": 2147483648}"));
+    }
+
+    @Test
+    void shouldRejectLongOverflow() throws Exception {
+        // Given
+        CalculationRequest request = new CalculationRequest("9223372036854775807 * 2", NumericMode.LONG);
+
+        // When & Then
+        mockMvc.perform(post(URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Arithmetic overflow"));
+    }
+
+    @Test
+    void shouldReturnExactDecimalsAsPlainNumbers() throws Exception {
+        // When & Then
+        mockMvc.perform(post(URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"expression\": \"100000000000000000000000 / 8 + 1 / 4\", \"mode\": \"DECIMAL\"}"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("{\"result\":12500000000000000000000.25,\"error\":null}"));
+    }
+
+    @Test
+    void shouldApplyNumericModeToWholeBatch() throws Exception {
+        // Given
+        BatchCalculationRequest request = new BatchCalculationRequest(
+                List.of("99999999999 * 99999999999", "7 / 2"), NumericMode.BIG_INTEGER);
+
+        // When & Then
+        mockMvc.perform(post(BATCH_URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(content().string("[{\"result\":9999999999800000000001,\"error\":null},{\"result\":3,\"error\":null}]"));
+    }
+
+    @Test
+    void shouldRejectUnknownNumericMode() throws Exception {
+        // When & Then
+        mockMvc.perform(post(URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"expression\": \"1 + 1\", \"mode\": \"float\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // ========== BATCH EVALUATION ==========
+
+    @Test
+    void shouldReturnIndexAlignedBatchResults() throws Exception {
+        // Given
+        BatchCalculationRequest request = new BatchCalculationRequest(
+                Arrays.asList("2 + 3", "10 / 0", "2 + * 3", null, "3 * -2 + 6"));
+
+        // When & Then
+        mockMvc.perform(post(BATCH_URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5))
+                .andExpect(jsonPath("$[0].result").value(5))
+                .andExpect(jsonPath("$[1].result").doesNotExist())
+                .andExpect(jsonPath("$[1].error").value("Division by zero"))
+                .andExpect(jsonPath("$[2].error").exists())
+                .andExpect(jsonPath("$[3].error").value("Expression cannot be empty"))
+                .andExpect(jsonPath("$[4].result").value(0));
+    }
+
+    @Test
+    void shouldEvaluateLargeBatchInParallelPreservingOrder() throws Exception {
+        // Given
+        List<String> expressions = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            expressions.add(i + " * 2");
+        }
+        BatchCalculationRequest request = new BatchCalculationRequest(expressions);
+
+        // When & Then
+        mockMvc.perform(post(BATCH_URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1000))
+                .andExpect(jsonPath("$[0].result").value(0))
+                .andExpect(jsonPath("$[517].result").value(1034))
+                .andExpect(jsonPath("$[999].result").value(1998));
+    }
+
+    @Test
+    void shouldRejectEmptyBatch() throws Exception {
+        // Given
+        BatchCalculationRequest request = new BatchCalculationRequest(List.of());
+
+        // When & Then
+        mockMvc.perform(post(BATCH_URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldRejectBatchAboveMaximumSize() throws Exception {
+        // Given
+        BatchCalculationRequest request = new BatchCalculationRequest(Collections.nCopies(2001, "1 + 1"));
+
+        // When & Then
+        mockMvc.perform(post(BATCH_URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isPayloadTooLarge());
+    }
+
+    // ========== PREPARED EVALUATION ==========
+
+    @Test
+    void shouldEvaluatePreparedExpressionForEachBindingRow() throws Exception {
+        // Given
+        Map<String, Integer> missingDiscount = new HashMap<>(Map.of("price", 1, "qty", 1));
+        PreparedCalculationRequest request = new PreparedCalculationRequest("price * qty - discount", Arrays.asList(
+                Map.of("price", 10, "qty", 3, "discount", 5),
+                Map.of("price", 7, "qty", -2, "discount", 0),
+                missingDiscount,
+                Map.of("price", 1, "qty", 1, "discount", 1, "tax", 2),
+                null));
+
+        // When & Then
+        mockMvc.perform(post(PREPARED_URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5))
+                .andExpect(jsonPath("$[0].result").value(25))
+                .andExpect(jsonPath("$[1].result").value(-14))
+                .andExpect(jsonPath("$[2].error").value("Missing value for variable: discount"))
+                .andExpect(jsonPath("$[3].error").value("Unknown variable: tax"))
+                .andExpect(jsonPath("$[4].error").value("Missing value for variable: price"));
+    }
+
+    @Test
+    void shouldEvaluateManyPreparedRowsInParallelPreservingOrder() throws Exception {
+        // Given
+        List<Map<String, Integer>> bindings = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            bindings.add(Map.of("x", i));
+        }
+        PreparedCalculationRequest request = new PreparedCalculationRequest("x * 2", bindings);
+
+        // When & Then
+        mockMvc.perform(post(PREPARED_URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1000))
+                .andExpect(jsonPath("$[517].result").value(1034))
+                .andExpect(jsonPath("$[999].result").value(1998));
+    }
+
+    @Test
+    void shouldRejectInvalidPreparedExpression() throws Exception {
+        // Given
+        PreparedCalculationRequest request = new PreparedCalculationRequest("price * * qty", List.of(Map.of("price", 1)));
+
+        // When & Then
+        mockMvc.perform(post(PREPARED_URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value(containsString("expected number")));
+    }
+
+    @Test
+    void shouldRejectPreparedRowsAboveMaximumSize() throws Exception {
+        // Given
+        PreparedCalculationRequest request = new PreparedCalculationRequest("x + 1",
+                Collections.nCopies(2001, Map.of("x", 1)));
+
+        // When & Then
+        mockMvc.perform(post(PREPARED_URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isPayloadTooLarge());
+    }
+
+    // ========== STREAMING EVALUATION ==========
+
+    @Test
+    void shouldStreamOneResponsePerInputLine() throws Exception {
+        // Given
+        String body = """
+                2 + 3
+                {"expression": "10 / 0"}
+
+                {"expression": "3 * -2 + 6"}
+                2 & 3
+                {"expression": 
+                """;
+
+        // When & Then
+        mockMvc.perform(post(STREAM_URI)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("""
+                        {"result":5,"error":null}
+                        {"result":null,"error":"Division by zero"}
+                        {"result":0,"error":null}
+                        {"result":null,"error":"Invalid character in expression. Please use only digits (0-9), operators (+, -, *, /, ^), parentheses, and spaces."}
+                        {"result":null,"error":"Invalid request"}
+                        """));
+    }
+
+    @Test
+    void shouldStreamPlainTextExpressions() throws Exception {
+        // Given
+        StringBuilder body = new StringBuilder();
+        for (int i = 1; i <= 500; i++) {
+            body.append(i).append(" * 2\n");
+        }
+
+        // When
+        String content = mockMvc.perform(post(STREAM_URI)
+                .contentType(MediaType.TEXT_PLAIN)
+                .content(body.toString()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // Then
+        String[] lines = content.split("\n");
+        assertEquals(500, lines.length);
+        assertEquals("{\"result\":1000,\"error\":null}", lines[499]);
+    }
+
+    @Test
+    void shouldRejectOverlongLineAndContinueAfterIt() throws Exception {
+        // Given
+        String body = "2 + 3\r\n" + "1 + ".repeat(1000) + "1\r\n" + "4 * 5\r\n";
+
+        // When & Then
+        mockMvc.perform(post(STREAM_URI)
+                .contentType(MediaType.TEXT_PLAIN)
+                .content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().string("""
+                        {"result":5,"error":null}
+                        {"result":null,"error":"Line too long"}
+                        {"result":20,"error":null}
+                        """));
+    }
+
+    // ========== INCREMENTAL SESSIONS ==========
+
+    @Test
+    void shouldEvaluateEditsInSession() throws Exception {
+        // Given
+        String response = mockMvc.perform(post(SESSIONS_URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new SessionRequest("2 + 3 * 4"))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.result").value(14))
+                .andReturn().getResponse().getContentAsString();
+        String id = objectMapper.readTree(response).get("id").asText();
+
+        // When & Then
+        mockMvc.perform(post(SESSIONS_URI + "/" + id + "/edits")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new SessionEditRequest(8, 1, "(4 - 1) *"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result").doesNotExist())
+                .andExpect(jsonPath("$.error").value("Expression must end with a number"));
+        mockMvc.perform(post(SESSIONS_URI + "/" + id + "/edits")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new SessionEditRequest(17, 0, " 2"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(id))
+                .andExpect(jsonPath("$.result").value(20));
+        mockMvc.perform(post(SESSIONS_URI + "/" + id + "/edits")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new SessionEditRequest(30, 1, ""))))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(delete(SESSIONS_URI + "/" + id))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void shouldRejectEditsToUnknownSession() throws Exception {
+        mockMvc.perform(post(SESSIONS_URI + "/missing/edits")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new SessionEditRequest(0, 0, "1"))))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(delete(SESSIONS_URI + "/missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    // ========== METRICS ==========
+
+    @Test
+    void shouldExposeCalculatorMetricsForPrometheus() throws Exception {
+        // Given
+        mockMvc.perform(post(URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new CalculationRequest("2 + 3 * 4"))))
+                .andExpect(status().isOk());
+        mockMvc.perform(post(URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new CalculationRequest("10 / 0"))))
+                .andExpect(status().isBadRequest());
+
+        // When & Then
+        mockMvc.perform(get(PROMETHEUS_URI))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("calculator_calculations_seconds_count{mode=\"pipeline\",outcome=\"success\"}")))
+                .andExpect(content().string(containsString("calculator_stage_seconds_bucket{stage=\"tokenize\"")))
+                .andExpect(content().string(containsString("calculator_errors_total{type=\"division_by_zero\"}")))
+                .andExpect(content().string(containsString("calculator_operations_total{operator=\"*\"}")))
+                .andExpect(content().string(containsString("calculator_expression_tokens_count")))
+                .andExpect(content().string(containsString("calculator_single_flight_coalesced_total")));
+    }
+}
@@ -1,11 +1,34 @@
 package com.jpozarycki.calculator;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
 class AdditionOperation implements Operation {
     @Override
     public int execute(int left, int right) {
         return left + right;
     }
 
+    @Override
+    public long execute(long left, long right) {
+        try {
+            return Math.addExact(left, right);
+        } catch (ArithmeticException e) {
+            throw ExpressionError.OVERFLOW.exception();
+        }
+    }
+
+    @Override
+    public BigInteger execute(BigInteger left, BigInteger right) {
+        return left.add(right);
+    }
+
+    @Override
+    public BigDecimal execute(BigDecimal left, BigDecimal right, MathContext mathContext) {
+        return left.add(right, mathContext);
+    }
+
     @Override
     public String getSymbol() {
         return "+";
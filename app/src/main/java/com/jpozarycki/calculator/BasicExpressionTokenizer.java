@@ -12,6 +12,15 @@ class BasicExpressionTokenizer implements ExpressionTokenizer {
 
     @Override
     public List<String> tokenize(String expression) {
+        return tokenize(expression, false);
+    }
+
+    @Override
+    public List<String> tokenizeWithVariables(String expression) {
+        return tokenize(expression, true);
+    }
+
+    private List<String> tokenize(String expression, boolean allowVariables) {
         List<String> tokens = new ArrayList<>();
         String expressionTrimmed = expression.trim();
         
@@ -29,7 +38,13 @@ class BasicExpressionTokenizer implements ExpressionTokenizer {
             }
             
             String charStr = String.valueOf(ch);
-            if (operationRegistry.isValidOperator(charStr) && !charStr.equals("-")) {
+            if (ch == '(' || ch == ')') {
+                if (!currentToken.isEmpty()) {
+                    tokens.add(currentToken.toString());
+                    currentToken = new StringBuilder();
+                }
+                tokens.add(charStr);
+            } else if (operationRegistry.isValidOperator(charStr) && !charStr.equals("-")) {
                 if (!currentToken.isEmpty()) {
                     tokens.add(currentToken.toString());
                     currentToken = new StringBuilder();
@@ -41,17 +56,17 @@ class BasicExpressionTokenizer implements ExpressionTokenizer {
                     tokens.add(currentToken.toString());
                     currentToken = new StringBuilder();
                     tokens.add(charStr);
-                } else if (tokens.isEmpty() || operationRegistry.isValidOperator(tokens.get(tokens.size() - 1))) {
-                    // It's a negative number
+                } else if (tokens.isEmpty() || isOperandExpected(tokens.get(tokens.size() - 1))) {
+                    // It's a negative number, or a unary minus if no digits follow
                     currentToken.append(ch);
                 } else {
                     // It's a minus operator
                     tokens.add(charStr);
                 }
-            } else if (Character.isDigit(ch)) {
+            } else if (Character.isDigit(ch) || (allowVariables && isIdentifierCharacter(ch))) {
                 currentToken.append(ch);
             } else {
-                throw new IllegalArgumentException("Invalid character in expression. Please use only digits (0-9), operators (+, -, *, /), and spaces.");
+                throw ExpressionError.INVALID_CHARACTER.exception();
             }
         }
         
@@ -61,4 +76,12 @@ class BasicExpressionTokenizer implements ExpressionTokenizer {
         
         return tokens;
     }
+
+    private boolean isOperandExpected(String previousToken) {
+        return previousToken.equals("(") || operationRegistry.isValidOperator(previousToken);
+    }
+
+    private static boolean isIdentifierCharacter(char ch) {
+        return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z') || ch == '_';
+    }
 } 
\ No newline at end of file
@@ -4,6 +4,7 @@ import org.springframework.stereotype.Component;
 import java.util.List;
 
 import static com.jpozarycki.calculator.util.NumberUtil.isNumber;
+import static com.jpozarycki.calculator.util.VariableUtil.isVariable;
 
 @Component
 class BasicExpressionValidator implements ExpressionValidator {
@@ -11,31 +12,55 @@ class BasicExpressionValidator implements ExpressionValidator {
     @Override
     public void validate(List<String> tokens, OperationRegistryFacade registry) {
         if (tokens.isEmpty()) {
-            throw new IllegalArgumentException("Expression cannot be empty");
+            throw ExpressionError.EMPTY_EXPRESSION.exception();
         }
 
         // Validate first and last tokens
-        if (!isNumber(tokens.get(0))) {
-            throw new IllegalArgumentException("Expression must start with a number");
+        String first = tokens.get(0);
+        if (!isOperand(first) && !first.equals("(") && !isSign(first)) {
+            throw ExpressionError.MISSING_LEADING_NUMBER.exception();
         }
-        
-        if (!isNumber(tokens.get(tokens.size() - 1))) {
-            throw new IllegalArgumentException("Expression must end with a number");
+
+        String last = tokens.get(tokens.size() - 1);
+        if (!isOperand(last) && !last.equals(")")) {
+            throw ExpressionError.MISSING_TRAILING_NUMBER.exception();
         }
 
-        // Validate alternating pattern
+        boolean expectOperand = true;
+        int depth = 0;
         for (int i = 0; i < tokens.size(); i++) {
             String token = tokens.get(i);
-            if (i % 2 == 0) {
-                if (!isNumber(token)) {
-                    throw new IllegalArgumentException("Invalid expression: expected number at position " + i);
+            if (expectOperand) {
+                if (isOperand(token)) {
+                    expectOperand = false;
+                } else if (token.equals("(")) {
+                    depth++;
+                } else if (!isSign(token)) {
+                    throw ExpressionError.EXPECTED_NUMBER.exception(i);
                 }
-            } else {
-                if (!registry.isValidOperator(token)) {
-                    throw new IllegalArgumentException("Invalid expression: expected operator at position " + i);
+            } else if (token.equals(")")) {
+                if (depth == 0) {
+                    throw ExpressionError.UNEXPECTED_CLOSING_PARENTHESIS.exception(i);
                 }
+                depth--;
+            } else if (registry.isValidOperator(token)) {
+                expectOperand = true;
+            } else {
+                throw ExpressionError.EXPECTED_OPERATOR.exception(i);
             }
         }
+
+        if (depth > 0) {
+            throw ExpressionError.MISSING_CLOSING_PARENTHESIS.exception();
+        }
+    }
+
+    // Only ExpressionTokenizer.tokenizeWithVariables lets identifiers through to here
+    private static boolean isOperand(String token) {
+        return isNumber(token) || isVariable(token);
     }
 
-} 
\ No newline at end of file
+    private static boolean isSign(String token) {
+        return token.equals("+") || token.equals("-");
+    }
+}
@@ -0,0 +1,101 @@
+package com.jpozarycki.calculator;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.ConstantDynamic;
+import org.springframework.asm.Handle;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Operations are dynamic constants from the class data, so the JIT sees a constant receiver and can
+// inline execute; hidden classes are unloaded once their instance is unreachable
+final class BytecodeProgramGenerator {
+    private static final String CLASS_NAME = Type.getInternalName(GeneratedProgram.class) + "Impl";
+    private static final String OPERATION = Type.getInternalName(Operation.class);
+    private static final Handle CLASS_DATA_AT = new Handle(Opcodes.H_INVOKESTATIC,
+            "java/lang/invoke/MethodHandles", "classDataAt",
+            "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;I)Ljava/lang/Object;", false);
+    private static final int FIRST_STACK_SLOT = 2;
+
+    private final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+    GeneratedProgram generate(Operation[] program) {
+        Map<Operation, Integer> constantIndex = new IdentityHashMap<>();
+        List<Operation> operations = new ArrayList<>();
+        for (Operation operation : program) {
+            if (operation != null && !constantIndex.containsKey(operation)) {
+                constantIndex.put(operation, operations.size());
+                operations.add(operation);
+            }
+        }
+
+        byte[] bytes = generateClass(program, constantIndex);
+        try {
+            Class<?> generated = lookup.defineHiddenClassWithClassData(bytes, List.copyOf(operations), true)
+                    .lookupClass();
+            return (GeneratedProgram) generated.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot define generated program", e);
+        }
+    }
+
+    private static byte[] generateClass(Operation[] program, Map<Operation, Integer> constantIndex) {
+        ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        classWriter.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SYNTHETIC,
+                CLASS_NAME, null, "java/lang/Object", new String[]{Type.getInternalName(GeneratedProgram.class)});
+
+        MethodVisitor constructor = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        constructor.visitInsn(Opcodes.RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        MethodVisitor evaluate = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "evaluate", "([I)I", null, null);
+        evaluate.visitCode();
+        int depth = 0;
+        int nextOperand = 0;
+        for (Operation operation : program) {
+            if (operation == null) {
+                evaluate.visitVarInsn(Opcodes.ALOAD, 1);
+                pushInt(evaluate, nextOperand++);
+                evaluate.visitInsn(Opcodes.IALOAD);
+                evaluate.visitVarInsn(Opcodes.ISTORE, FIRST_STACK_SLOT + depth++);
+            } else {
+                int index = constantIndex.get(operation);
+                evaluate.visitLdcInsn(new ConstantDynamic("_", "L" + OPERATION + ";", CLASS_DATA_AT, index));
+                evaluate.visitVarInsn(Opcodes.ILOAD, FIRST_STACK_SLOT + depth - 2);
+                evaluate.visitVarInsn(Opcodes.ILOAD, FIRST_STACK_SLOT + depth - 1);
+                evaluate.visitMethodInsn(Opcodes.INVOKEINTERFACE, OPERATION, "execute", "(II)I", true);
+                evaluate.visitVarInsn(Opcodes.ISTORE, FIRST_STACK_SLOT + depth - 2);
+                depth--;
+            }
+        }
+        evaluate.visitVarInsn(Opcodes.ILOAD, FIRST_STACK_SLOT);
+        evaluate.visitInsn(Opcodes.IRETURN);
+        evaluate.visitMaxs(0, 0);
+        evaluate.visitEnd();
+
+        classWriter.visitEnd();
+        return classWriter.toByteArray();
+    }
+
+    private static void pushInt(MethodVisitor method, int value) {
+        if (value <= 5) {
+            method.visitInsn(Opcodes.ICONST_0 + value);
+        } else if (value <= Byte.MAX_VALUE) {
+            method.visitIntInsn(Opcodes.BIPUSH, value);
+        } else if (value <= Short.MAX_VALUE) {
+            method.visitIntInsn(Opcodes.SIPUSH, value);
+        } else {
+            method.visitLdcInsn(value);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.jpozarycki.calculator;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// Off unless a recording enables it; while off, begin returns null after one flag check, so a
+// calculation neither allocates the event nor reads the clock
+@Name("com.jpozarycki.calculator.Calculation")
+@Label("Calculation")
+@Category("Calculator")
+@Description("One calculation, with the time spent in each pipeline stage")
+@Enabled(false)
+@StackTrace(false)
+final class CalculationEvent extends Event {
+    static final String HIT = "hit";
+    static final String MISS = "miss";
+    static final String BYPASS = "bypass";
+    static final String COALESCED = "coalesced";
+
+    private static final EventType TYPE = EventType.getEventType(CalculationEvent.class);
+
+    @Label("Expression Length")
+    int expressionLength;
+
+    @Label("Numeric Mode")
+    String numericMode;
+
+    @Label("Evaluation Mode")
+    String evaluationMode;
+
+    @Label("Tokens")
+    int tokens;
+
+    @Label("Result Cache")
+    String resultCache = BYPASS;
+
+    @Label("Compiled Cache")
+    String compiledCache = BYPASS;
+
+    @Label("Tokenize Time")
+    @Timespan
+    long tokenizeTime;
+
+    @Label("Validate Time")
+    @Timespan
+    long validateTime;
+
+    @Label("Compile Time")
+    @Timespan
+    long compileTime;
+
+    @Label("Evaluate Time")
+    @Timespan
+    long evaluateTime;
+
+    @Label("Error")
+    String error;
+
+    static CalculationEvent begin(String expression, NumericMode numericMode, EvaluationMode evaluationMode) {
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+        CalculationEvent event = new CalculationEvent();
+        event.expressionLength = expression == null ? 0 : expression.length();
+        event.numericMode = numericMode.name();
+        event.evaluationMode = evaluationMode.name();
+        event.begin();
+        return event;
+    }
+
+    void resultCache(ResultCache.Outcome outcome) {
+        resultCache = switch (outcome) {
+            case HIT -> HIT;
+            case MISS -> MISS;
+            case COALESCED -> COALESCED;
+        };
+    }
+
+    void failed(RuntimeException e) {
+        error = ExpressionException.failure(e).error().name();
+        commit();
+    }
+}
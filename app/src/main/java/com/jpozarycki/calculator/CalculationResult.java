@@ -0,0 +1,11 @@
+package com.jpozarycki.calculator;
+
+public sealed interface CalculationResult {
+
+    record Success(Number value) implements CalculationResult {
+    }
+
+    // position is the index of the offending token, or -1 when the message names none
+    record Failure(ExpressionError error, int position, String message) implements CalculationResult {
+    }
+}
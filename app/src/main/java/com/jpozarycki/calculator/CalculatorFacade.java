@@ -1,5 +1,27 @@
 package com.jpozarycki.calculator;
 
+import java.util.Map;
+
 public interface CalculatorFacade {
     int calculate(String expression);
+
+    // An Integer for INT, otherwise a Long, BigInteger or BigDecimal
+    Number calculate(String expression, NumericMode mode);
+
+    // Returns a rejected expression as a Failure instead of throwing it
+    default CalculationResult tryCalculate(String expression, NumericMode mode) {
+        try {
+            return new CalculationResult.Success(calculate(expression, mode));
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            return ExpressionException.failure(e);
+        }
+    }
+
+    // Syntax errors and out-of-range literals are thrown here rather than on evaluation
+    PreparedExpression prepare(String expression);
+
+    // Values bind in the order of PreparedExpression.variables()
+    int evaluate(PreparedExpression expression, int... values);
+
+    int evaluate(PreparedExpression expression, Map<String, Integer> values);
 }
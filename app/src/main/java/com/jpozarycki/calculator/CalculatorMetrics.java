@@ -0,0 +1,198 @@
+package com.jpozarycki.calculator;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Meters are registered once and kept in fields; latencies publish histograms so percentiles are
+// computed, and can be aggregated across instances, in the monitoring backend
+@Component
+class CalculatorMetrics {
+    // Stages run in microseconds, far below Micrometer's default 1ms lowest bucket
+    private static final Duration MIN_EXPECTED_DURATION = Duration.ofNanos(500);
+    private static final Duration MAX_EXPECTED_DURATION = Duration.ofSeconds(10);
+
+    private final MeterRegistry registry;
+    private final Timer tokenizeTimer;
+    private final Timer validateTimer;
+    private final Timer compileTimer;
+    private final Timer evaluateTimer;
+    private final Map<EvaluationMode, Timer> successTimers = new EnumMap<>(EvaluationMode.class);
+    private final Map<EvaluationMode, Timer> errorTimers = new EnumMap<>(EvaluationMode.class);
+    private final Map<ErrorType, Counter> errorCounters = new EnumMap<>(ErrorType.class);
+    private final Map<String, Counter> operationCounters = new ConcurrentHashMap<>();
+    private final DistributionSummary tokenCounts;
+
+    CalculatorMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.tokenizeTimer = stageTimer("tokenize");
+        this.validateTimer = stageTimer("validate");
+        this.compileTimer = stageTimer("compile");
+        this.evaluateTimer = stageTimer("evaluate");
+        for (EvaluationMode mode : EvaluationMode.values()) {
+            successTimers.put(mode, calculationTimer(mode, "success"));
+            errorTimers.put(mode, calculationTimer(mode, "error"));
+        }
+        for (ErrorType type : ErrorType.values()) {
+            errorCounters.put(type, Counter.builder("calculator.errors")
+                    .description("Rejected or failed calculations by cause")
+                    .tag("type", type.tag)
+                    .register(registry));
+        }
+        this.tokenCounts = DistributionSummary.builder("calculator.expression.tokens")
+                .description("Tokens per evaluated expression")
+                .baseUnit("tokens")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(1_000_000.0)
+                .register(registry);
+    }
+
+    long start() {
+        return System.nanoTime();
+    }
+
+    long tokenized(long started) {
+        long elapsed = System.nanoTime() - started;
+        tokenizeTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        return elapsed;
+    }
+
+    long validated(long started) {
+        long elapsed = System.nanoTime() - started;
+        validateTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        return elapsed;
+    }
+
+    long compiled(long started) {
+        long elapsed = System.nanoTime() - started;
+        compileTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        return elapsed;
+    }
+
+    long evaluated(long started) {
+        long elapsed = System.nanoTime() - started;
+        evaluateTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        return elapsed;
+    }
+
+    void succeeded(EvaluationMode mode, long started) {
+        successTimers.get(mode).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    }
+
+    void failed(EvaluationMode mode, long started, RuntimeException e) {
+        errorTimers.get(mode).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        errorCounters.get(ErrorType.of(e)).increment();
+    }
+
+    void recordTokens(List<String> tokens, OperatorTable operatorTable) {
+        tokenCounts.record(tokens.size());
+        int[] usage = new int[operatorTable.size()];
+        boolean expectOperand = true;
+        for (String token : tokens) {
+            int index = operatorTable.indexOf(token);
+            if (token.equals("(") || token.equals(")")) {
+                continue;
+            }
+            if (index < 0) {
+                expectOperand = false;
+            } else if (!expectOperand || token.equals("-")) {
+                // Like the compiled program, count a unary minus as a subtraction and skip a unary plus
+                usage[index]++;
+                expectOperand = true;
+            }
+        }
+        for (int index = 0; index < usage.length; index++) {
+            if (usage[index] > 0) {
+                operationCounter(operatorTable.operation(index)).increment(usage[index]);
+            }
+        }
+    }
+
+    void recordTokens(CompiledExpression compiled) {
+        if (compiled.size() == 0) {
+            return;
+        }
+        tokenCounts.record(compiled.size());
+        compiled.forEachOperation((operation, count) -> operationCounter(operation).increment(count));
+    }
+
+    void register(SingleFlight<?, ?> singleFlight) {
+        FunctionCounter.builder("calculator.single_flight.coalesced", singleFlight, SingleFlight::coalesced)
+                .description("Calculations that waited for an identical one already in flight")
+                .register(registry);
+        FunctionCounter.builder("calculator.single_flight.overflows", singleFlight, SingleFlight::overflows)
+                .description("Calculations evaluated on their own because the in-flight table was full")
+                .register(registry);
+        Gauge.builder("calculator.single_flight.in_flight", singleFlight, SingleFlight::inFlight)
+                .description("Distinct calculations currently in flight")
+                .register(registry);
+    }
+
+    private Counter operationCounter(Operation operation) {
+        return operationCounters.computeIfAbsent(operation.getSymbol(), symbol -> Counter.builder("calculator.operations")
+                .description("Operators applied in evaluated expressions")
+                .tag("operator", symbol)
+                .register(registry));
+    }
+
+    private Timer stageTimer(String stage) {
+        return Timer.builder("calculator.stage")
+                .description("Time spent in a single pipeline stage")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_EXPECTED_DURATION)
+                .maximumExpectedValue(MAX_EXPECTED_DURATION)
+                .register(registry);
+    }
+
+    private Timer calculationTimer(EvaluationMode mode, String outcome) {
+        return Timer.builder("calculator.calculations")
+                .description("End-to-end time of CalculatorFacade.calculate")
+                .tag("mode", mode.name().toLowerCase().replace('_', '-'))
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_EXPECTED_DURATION)
+                .maximumExpectedValue(MAX_EXPECTED_DURATION)
+                .register(registry);
+    }
+
+    private enum ErrorType {
+        DIVISION_BY_ZERO("division_by_zero"),
+        FRACTIONAL_EXPONENT("fractional_exponent"),
+        OVERFLOW("overflow"),
+        INVALID_CHARACTER("invalid_character"),
+        NUMBER_OUT_OF_RANGE("number_out_of_range"),
+        MALFORMED("malformed"),
+        OTHER("other");
+
+        private final String tag;
+
+        ErrorType(String tag) {
+            this.tag = tag;
+        }
+
+        static ErrorType of(RuntimeException e) {
+            return switch (ExpressionException.failure(e).error()) {
+                case DIVISION_BY_ZERO -> DIVISION_BY_ZERO;
+                case FRACTIONAL_EXPONENT -> FRACTIONAL_EXPONENT;
+                case OVERFLOW -> OVERFLOW;
+                case INVALID_CHARACTER -> INVALID_CHARACTER;
+                case NUMBER_OUT_OF_RANGE -> NUMBER_OUT_OF_RANGE;
+                // Also what an unrecognised exception from the JDK or a plugin is classified as
+                case INVALID_EXPRESSION -> e instanceof IllegalArgumentException ? MALFORMED : OTHER;
+                default -> MALFORMED;
+            };
+        }
+    }
+}
@@ -1,26 +1,231 @@
 package com.jpozarycki.calculator;
 
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @Service
-@RequiredArgsConstructor
 class CalculatorService implements CalculatorFacade {
-    
+    private static final Consumer<ResultCache.Outcome> UNRECORDED = outcome -> {
+    };
+
     private final OperationRegistryFacade operationRegistry;
     private final ExpressionEvaluator evaluator;
     private final ExpressionTokenizer tokenizer;
     private final ExpressionValidator validator;
+    private final ExpressionCompiler compiler;
+    private final CompiledExpressionCache expressionCache;
+    private final SinglePassExpressionEvaluator singlePassEvaluator;
+    private final NumericExpressionEvaluator numericEvaluator;
+    private final EvaluationMode evaluationMode;
+    private final CalculatorMetrics metrics;
+    private final ResultCache resultCache;
+
+    CalculatorService(OperationRegistryFacade operationRegistry,
+                      ExpressionEvaluator evaluator,
+                      ExpressionTokenizer tokenizer,
+                      ExpressionValidator validator,
+                      ExpressionCompiler compiler,
+                      CompiledExpressionCache expressionCache,
+                      SinglePassExpressionEvaluator singlePassEvaluator,
+                      NumericExpressionEvaluator numericEvaluator,
+                      @Value("${calculator.evaluation-mode:pipeline}") EvaluationMode evaluationMode,
+                      CalculatorMetrics metrics,
+                      ResultCache resultCache) {
+        this.operationRegistry = operationRegistry;
+        this.evaluator = evaluator;
+        this.tokenizer = tokenizer;
+        this.validator = validator;
+        this.compiler = compiler;
+        this.expressionCache = expressionCache;
+        this.singlePassEvaluator = singlePassEvaluator;
+        this.numericEvaluator = numericEvaluator;
+        this.evaluationMode = evaluationMode;
+        this.metrics = metrics;
+        this.resultCache = resultCache;
+        operationRegistry.addChangeListener(expressionCache::invalidate);
+        operationRegistry.addChangeListener(resultCache::invalidate);
+    }
 
     @Override
     public int calculate(final String expression) {
+        CalculationEvent event = CalculationEvent.begin(expression, NumericMode.INT, evaluationMode);
+        long started = metrics.start();
+        try {
+            int result;
+            if (resultCache.accepts(expression)) {
+                result = resultCache.get(expression, operationRegistry.operatorTable(),
+                        missed -> evaluate(missed, event),
+                        event != null ? event::resultCache : UNRECORDED);
+            } else {
+                result = evaluate(expression, event);
+            }
+            metrics.succeeded(evaluationMode, started);
+            if (event != null) {
+                event.commit();
+            }
+            return result;
+        } catch (RuntimeException e) {
+            metrics.failed(evaluationMode, started, e);
+            if (event != null) {
+                event.failed(e);
+            }
+            throw e;
+        }
+    }
+
+    // Only int has a cached, compiled and single-pass path; the wider modes evaluate the validated tokens
+    @Override
+    public Number calculate(final String expression, final NumericMode mode) {
+        if (mode == NumericMode.INT) {
+            return calculate(expression);
+        }
+        CalculationEvent event = CalculationEvent.begin(expression, mode, EvaluationMode.PIPELINE);
+        long started = metrics.start();
+        try {
+            if (expression == null || expression.trim().isEmpty()) {
+                throw ExpressionError.EMPTY_EXPRESSION.exception();
+            }
+            List<String> tokens = tokenize(expression, event);
+            validate(tokens, event);
+            metrics.recordTokens(tokens, operationRegistry.operatorTable());
+            long evaluating = metrics.start();
+            Number result = numericEvaluator.evaluate(tokens, mode);
+            long evaluated = metrics.evaluated(evaluating);
+            metrics.succeeded(EvaluationMode.PIPELINE, started);
+            if (event != null) {
+                event.evaluateTime = evaluated;
+                event.commit();
+            }
+            return result;
+        } catch (RuntimeException e) {
+            metrics.failed(EvaluationMode.PIPELINE, started, e);
+            if (event != null) {
+                event.failed(e);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public PreparedExpression prepare(final String expression) {
         if (expression == null || expression.trim().isEmpty()) {
-            throw new IllegalArgumentException("Expression cannot be empty");
+            throw ExpressionError.EMPTY_EXPRESSION.exception();
         }
-        
+        long started = metrics.start();
+        List<String> tokens = tokenizer.tokenizeWithVariables(expression);
+        metrics.tokenized(started);
+        validate(tokens, null);
+        long compiling = metrics.start();
+        CompiledExpression compiled = compiler.compile(tokens);
+        metrics.compiled(compiling);
+        compiled.requireNoFailure();
+        return new PreparedExpression(expression, compiled);
+    }
+
+    @Override
+    public int evaluate(PreparedExpression expression, int... values) {
+        return evaluatePrepared(expression, variables -> values);
+    }
+
+    @Override
+    public int evaluate(PreparedExpression expression, Map<String, Integer> values) {
+        return evaluatePrepared(expression, variables -> variables.valuesOf(values));
+    }
+
+    // Prepared expressions always run their compiled program, so they are timed as the pipeline
+    private int evaluatePrepared(PreparedExpression expression, Function<VariableSlots, int[]> values) {
+        long started = metrics.start();
+        try {
+            CompiledExpression compiled = expression.compiled();
+            int result = compiled.evaluate(values.apply(compiled.variables()));
+            metrics.recordTokens(compiled);
+            metrics.succeeded(EvaluationMode.PIPELINE, started);
+            return result;
+        } catch (RuntimeException e) {
+            metrics.failed(EvaluationMode.PIPELINE, started, e);
+            throw e;
+        }
+    }
+
+    // The event is null unless a recording has it enabled, and only then are the stages written to it
+    private int evaluate(String expression, CalculationEvent event) {
+        if (expression == null) {
+            throw ExpressionError.EMPTY_EXPRESSION.exception();
+        }
+        if (evaluationMode == EvaluationMode.SINGLE_PASS) {
+            return singlePassEvaluator.evaluate(expression);
+        }
+        if (expression.trim().isEmpty()) {
+            throw ExpressionError.EMPTY_EXPRESSION.exception();
+        }
+        if (expressionCache.accepts(expression)) {
+            if (event != null) {
+                event.compiledCache = CalculationEvent.HIT;
+            }
+            CompiledExpression compiled = expressionCache.get(expression, normalized -> compile(normalized, event));
+            metrics.recordTokens(compiled);
+            long evaluating = metrics.start();
+            int result = compiled.evaluate();
+            long evaluated = metrics.evaluated(evaluating);
+            if (event != null) {
+                event.tokens = compiled.size();
+                event.evaluateTime = evaluated;
+            }
+            return result;
+        }
+
+        List<String> tokens = tokenize(expression, event);
+        validate(tokens, event);
+        metrics.recordTokens(tokens, operationRegistry.operatorTable());
+        long evaluating = metrics.start();
+        int result = evaluator.evaluate(tokens);
+        long evaluated = metrics.evaluated(evaluating);
+        if (event != null) {
+            event.evaluateTime = evaluated;
+        }
+        return result;
+    }
+
+    private CompiledExpression compile(String expression, CalculationEvent event) {
+        if (event != null) {
+            event.compiledCache = CalculationEvent.MISS;
+        }
+        try {
+            List<String> tokens = tokenize(expression, event);
+            validate(tokens, event);
+            long compiling = metrics.start();
+            CompiledExpression compiled = compiler.compile(tokens);
+            long elapsed = metrics.compiled(compiling);
+            if (event != null) {
+                event.compileTime = elapsed;
+            }
+            return compiled;
+        } catch (IllegalArgumentException e) {
+            return CompiledExpression.rejected(e);
+        }
+    }
+
+    private List<String> tokenize(String expression, CalculationEvent event) {
+        long started = metrics.start();
         List<String> tokens = tokenizer.tokenize(expression);
+        long tokenized = metrics.tokenized(started);
+        if (event != null) {
+            event.tokens = tokens.size();
+            event.tokenizeTime = tokenized;
+        }
+        return tokens;
+    }
+
+    private void validate(List<String> tokens, CalculationEvent event) {
+        long started = metrics.start();
         validator.validate(tokens, operationRegistry);
-        return evaluator.evaluate(tokens);
+        long validated = metrics.validated(started);
+        if (event != null) {
+            event.validateTime = validated;
+        }
     }
 }
@@ -0,0 +1,56 @@
+package com.jpozarycki.calculator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+// Matched on the exact expression text and mode; prepared expressions pass straight through
+@Primary
+@Service
+class CoalescingCalculator implements CalculatorFacade {
+    private final CalculatorService calculatorService;
+    private final SingleFlight<InFlightKey, Number> singleFlight;
+
+    CoalescingCalculator(CalculatorService calculatorService,
+                         CalculatorMetrics metrics,
+                         @Value("${calculator.single-flight.max-in-flight:10000}") int maxInFlight) {
+        this.calculatorService = calculatorService;
+        this.singleFlight = maxInFlight > 0 ? new SingleFlight<>(maxInFlight) : null;
+        if (singleFlight != null) {
+            metrics.register(singleFlight);
+        }
+    }
+
+    @Override
+    public int calculate(String expression) {
+        return (Integer) calculate(expression, NumericMode.INT);
+    }
+
+    @Override
+    public Number calculate(String expression, NumericMode mode) {
+        if (singleFlight == null || expression == null) {
+            return calculatorService.calculate(expression, mode);
+        }
+        return singleFlight.run(new InFlightKey(expression, mode), () -> calculatorService.calculate(expression, mode));
+    }
+
+    @Override
+    public PreparedExpression prepare(String expression) {
+        return calculatorService.prepare(expression);
+    }
+
+    @Override
+    public int evaluate(PreparedExpression expression, int... values) {
+        return calculatorService.evaluate(expression, values);
+    }
+
+    @Override
+    public int evaluate(PreparedExpression expression, Map<String, Integer> values) {
+        return calculatorService.evaluate(expression, values);
+    }
+
+    private record InFlightKey(String expression, NumericMode mode) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.jpozarycki.calculator;
+
+interface ColumnKernels {
+
+    void negate(int[] source, int from, int[] target, int length);
+
+    // Stores operation(left[i], right[i]) in left[i]; a row that throws gets 0 and is marked at firstRow + i
+    void apply(Operation operation, int[] left, int[] right, int length, long[] failed, int firstRow);
+
+    static void mark(long[] failed, int row) {
+        failed[row >>> 6] |= 1L << row;
+    }
+}
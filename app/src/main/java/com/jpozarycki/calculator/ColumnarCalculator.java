@@ -0,0 +1,102 @@
+package com.jpozarycki.calculator;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+// One instruction at a time over chunks of rows, small enough for the column stack to stay in cache;
+// the built-in operators use the Vector API when jdk.incubator.vector is present
+@Slf4j
+@Service
+class ColumnarCalculator implements ColumnarCalculatorFacade {
+    private static final int CHUNK_ROWS = 1024;
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    private final ColumnKernels kernels;
+
+    // The kernels are logged once at startup, since a missing --add-modules only makes evaluation slower
+    ColumnarCalculator(@Value("${calculator.columnar.vectorized:true}") boolean vectorized) {
+        this.kernels = vectorized ? vectorKernels() : new ScalarColumnKernels();
+        if (!(kernels instanceof ScalarColumnKernels)) {
+            log.info("Columnar evaluation uses the Vector API");
+        } else if (vectorized && ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            log.warn("Columnar evaluation uses scalar loops; start the JVM with --add-modules {} to vectorize it", VECTOR_MODULE);
+        } else if (!vectorized) {
+            log.info("Columnar evaluation uses scalar loops, as calculator.columnar.vectorized is false");
+        }
+    }
+
+    @Override
+    public ColumnarResult evaluate(PreparedExpression expression, int[]... columns) {
+        CompiledExpression compiled = expression.compiled();
+        int variableCount = compiled.variables().names().size();
+        if (columns.length != variableCount) {
+            throw ExpressionError.WRONG_VALUE_COUNT.exception(variableCount);
+        }
+        int rows = columns.length == 0 ? 1 : columns[0].length;
+        for (int[] column : columns) {
+            if (column.length != rows) {
+                throw new IllegalArgumentException("Columns must have the same length");
+            }
+        }
+
+        Operation[] program = compiled.program();
+        int[] constants = compiled.constants();
+        int[] variables = compiled.variables().variablesByOperand(constants.length);
+        int[][] stack = new int[compiled.maxStackDepth()][Math.min(rows, CHUNK_ROWS)];
+        int[] values = new int[rows];
+        long[] failed = new long[(rows + 63) >>> 6];
+        for (int firstRow = 0; firstRow < rows; firstRow += CHUNK_ROWS) {
+            int length = Math.min(CHUNK_ROWS, rows - firstRow);
+            int size = 0;
+            int nextOperand = 0;
+            for (Operation operation : program) {
+                if (operation == null) {
+                    int variable = variables[nextOperand];
+                    int[] target = stack[size++];
+                    if (variable == VariableSlots.CONSTANT) {
+                        Arrays.fill(target, 0, length, constants[nextOperand]);
+                    } else if (variable >= 0) {
+                        System.arraycopy(columns[variable], firstRow, target, 0, length);
+                    } else {
+                        kernels.negate(columns[~variable], firstRow, target, length);
+                    }
+                    nextOperand++;
+                } else {
+                    size--;
+                    kernels.apply(operation, stack[size - 1], stack[size], length, failed, firstRow);
+                }
+            }
+            System.arraycopy(stack[0], 0, values, firstRow, length);
+        }
+
+        // A row that failed early kept going with a 0 in place of the failed value
+        BitSet failures = BitSet.valueOf(failed);
+        for (int row = failures.nextSetBit(0); row >= 0; row = failures.nextSetBit(row + 1)) {
+            values[row] = 0;
+        }
+        return new ColumnarResult(values, failures);
+    }
+
+    private static ColumnKernels vectorKernels() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+            try {
+                // Loaded by name, so that this class links without the incubator module
+                return (ColumnKernels) Class.forName("com.jpozarycki.calculator.VectorColumnKernels")
+                        .getDeclaredConstructor()
+                        .newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                log.warn("Cannot load vectorized columnar kernels, using scalar loops", e);
+                return new ScalarColumnKernels();
+            }
+        }
+        return new ScalarColumnKernels();
+    }
+
+    ColumnKernels kernels() {
+        return kernels;
+    }
+}
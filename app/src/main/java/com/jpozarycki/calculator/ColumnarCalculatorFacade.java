@@ -0,0 +1,7 @@
+package com.jpozarycki.calculator;
+
+// Same int semantics as CalculatorFacade.evaluate(PreparedExpression, int...), without interpreting every row
+public interface ColumnarCalculatorFacade {
+    // One column per variable, in the order of PreparedExpression.variables(); no variables means a single row
+    ColumnarResult evaluate(PreparedExpression expression, int[]... columns);
+}
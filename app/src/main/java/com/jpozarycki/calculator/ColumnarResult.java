@@ -0,0 +1,7 @@
+package com.jpozarycki.calculator;
+
+import java.util.BitSet;
+
+// Failed rows, e.g. divisions by zero, are set in failures and have the value 0
+public record ColumnarResult(int[] values, BitSet failures) {
+}
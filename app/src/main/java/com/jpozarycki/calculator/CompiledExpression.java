@@ -0,0 +1,148 @@
+package com.jpozarycki.calculator;
+
+import java.util.Arrays;
+import java.util.function.ObjIntConsumer;
+
+// A null instruction pushes the next operand. A trailing failure is thrown only after the
+// preceding instructions ran, so errors surface in the same order as in ShuntingYardEvaluator
+final class CompiledExpression {
+    private static final Operation[] NO_INSTRUCTIONS = new Operation[0];
+    private static final int[] NO_OPERANDS = new int[0];
+
+    private final Operation[] program;
+    private final int[] operands;
+    private final int maxStackDepth;
+    private final VariableSlots variables;
+    private final RuntimeException failure;
+    private final Operation[] usedOperations;
+    private final int[] usageCounts;
+    private final int sourceSize;
+    private final ProgramShape shape;
+
+    CompiledExpression(Operation[] program, int[] operands, int maxStackDepth, VariableSlots variables,
+                       ProgramShape shape) {
+        this(program, program, operands, maxStackDepth, variables, null, shape);
+    }
+
+    CompiledExpression(Operation[] program, int[] operands, int maxStackDepth, VariableSlots variables,
+                       RuntimeException failure) {
+        this(program, program, operands, maxStackDepth, variables, failure, null);
+    }
+
+    CompiledExpression(Operation[] source, Operation[] program, int[] operands, int maxStackDepth,
+                       VariableSlots variables, ProgramShape shape) {
+        this(source, program, operands, maxStackDepth, variables, null, shape);
+    }
+
+    private CompiledExpression(Operation[] source, Operation[] program, int[] operands, int maxStackDepth,
+                               VariableSlots variables, RuntimeException failure, ProgramShape shape) {
+        this.program = program;
+        this.operands = operands;
+        this.maxStackDepth = maxStackDepth;
+        this.variables = variables;
+        this.failure = failure;
+        this.sourceSize = source.length;
+        this.shape = shape;
+
+        Operation[] used = new Operation[4];
+        int[] counts = new int[used.length];
+        int distinct = 0;
+        for (Operation operation : source) {
+            if (operation == null) {
+                continue;
+            }
+            int index = 0;
+            while (index < distinct && used[index] != operation) {
+                index++;
+            }
+            if (index == distinct) {
+                if (distinct == used.length) {
+                    used = Arrays.copyOf(used, distinct * 2);
+                    counts = Arrays.copyOf(counts, distinct * 2);
+                }
+                used[distinct++] = operation;
+            }
+            counts[index]++;
+        }
+        this.usedOperations = Arrays.copyOf(used, distinct);
+        this.usageCounts = Arrays.copyOf(counts, distinct);
+    }
+
+    // Expression errors carry no stack trace, so one instance is thrown on every evaluation
+    static CompiledExpression rejected(IllegalArgumentException e) {
+        return new CompiledExpression(NO_INSTRUCTIONS, NO_OPERANDS, 0, VariableSlots.NONE, e);
+    }
+
+    int evaluate() {
+        return run(operands);
+    }
+
+    int evaluate(int[] values) {
+        return run(variables.bind(operands, values));
+    }
+
+    private int run(int[] operands) {
+        if (shape != null) {
+            GeneratedProgram generated = shape.generated();
+            if (generated != null) {
+                return generated.evaluate(operands);
+            }
+            shape.recordHit();
+        }
+        return interpret(operands);
+    }
+
+    private int interpret(int[] operands) {
+        int[] stack = new int[maxStackDepth];
+        int size = 0;
+        int nextOperand = 0;
+        for (Operation operation : program) {
+            if (operation == null) {
+                stack[size++] = operands[nextOperand++];
+            } else {
+                int right = stack[--size];
+                int left = stack[--size];
+                stack[size++] = operation.execute(left, right);
+            }
+        }
+        requireNoFailure();
+        return stack[0];
+    }
+
+    void requireNoFailure() {
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    VariableSlots variables() {
+        return variables;
+    }
+
+    // Shared with ColumnarCalculator, which runs the same program over whole columns; not to be modified
+    Operation[] program() {
+        return program;
+    }
+
+    int[] constants() {
+        return operands;
+    }
+
+    int maxStackDepth() {
+        return maxStackDepth;
+    }
+
+    int size() {
+        return sourceSize;
+    }
+
+    int instructionCount() {
+        return program.length;
+    }
+
+    void forEachOperation(ObjIntConsumer<Operation> consumer) {
+        for (int i = 0; i < usedOperations.length; i++) {
+            consumer.accept(usedOperations[i], usageCounts[i]);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.jpozarycki.calculator;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+// Rejected expressions are cached too, so repeated invalid input costs a single lookup
+@Component
+class CompiledExpressionCache {
+    private final Cache<String, CompiledExpression> cache;
+    private final int maxExpressionLength;
+    // Compiles hold the read side until their program is in the cache, and invalidation the write side
+    private final ReadWriteLock compiling = new ReentrantReadWriteLock();
+
+    CompiledExpressionCache(@Value("${calculator.cache.maximum-weight:1000000}") long maximumWeight,
+                            @Value("${calculator.cache.max-expression-length:1024}") int maxExpressionLength) {
+        this.cache = maximumWeight > 0
+                ? Caffeine.newBuilder()
+                        .maximumWeight(maximumWeight)
+                        .<String, CompiledExpression>weigher((expression, compiled) -> expression.length() + compiled.size())
+                        .recordStats()
+                        .build()
+                : null;
+        this.maxExpressionLength = maxExpressionLength;
+    }
+
+    boolean accepts(String expression) {
+        return cache != null && expression.length() <= maxExpressionLength;
+    }
+
+    CompiledExpression get(String expression, Function<String, CompiledExpression> compiler) {
+        String key = normalize(expression);
+        CompiledExpression cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        // Without the lock, a compile against the previous operator table could be cached after invalidate had run
+        compiling.readLock().lock();
+        try {
+            // Unlike get, compute does not count a second miss for the lookup above
+            return cache.asMap().compute(key, (normalized, compiled) -> compiled != null ? compiled : compiler.apply(normalized));
+        } finally {
+            compiling.readLock().unlock();
+        }
+    }
+
+    CacheStats stats() {
+        return cache != null ? cache.stats() : CacheStats.empty();
+    }
+
+    // Only expressions that mention the symbol can parse, compile or fail differently once it changes
+    void invalidate(String symbol) {
+        if (cache != null) {
+            compiling.writeLock().lock();
+            try {
+                cache.asMap().keySet().removeIf(expression -> expression.contains(symbol));
+            } finally {
+                compiling.writeLock().unlock();
+            }
+        }
+    }
+
+    void invalidateAll() {
+        if (cache != null) {
+            compiling.writeLock().lock();
+            try {
+                cache.invalidateAll();
+            } finally {
+                compiling.writeLock().unlock();
+            }
+        }
+    }
+
+    // Runs of spaces only separate tokens, so collapsing them keeps the meaning and the error messages
+    static String normalize(String expression) {
+        String trimmed = expression.trim();
+        if (!trimmed.contains("  ")) {
+            return trimmed;
+        }
+        StringBuilder normalized = new StringBuilder(trimmed.length());
+        for (int i = 0; i < trimmed.length(); i++) {
+            char ch = trimmed.charAt(i);
+            if (ch != ' ' || trimmed.charAt(i - 1) != ' ') {
+                normalized.append(ch);
+            }
+        }
+        return normalized.toString();
+    }
+}
@@ -0,0 +1,257 @@
+package com.jpozarycki.calculator;
+
+import java.util.Arrays;
+
+// Constants of +/- and * chains gather into one offset or factor, which is exact because int
+// arithmetic wraps. Anything that may throw stays in place and in order, and plugins are left alone,
+// so errors surface exactly as before
+final class ConstantFolder {
+    private static final Operation ADDITION = new AdditionOperation();
+    private static final Operation SUBTRACTION = new SubtractionOperation();
+    private static final int NONE = -1;
+
+    private final Operation[] source;
+    private final int[] sourceOperands;
+    private final int sourceDepth;
+    private final VariableSlots variables;
+    // A null operation marks a leaf, whose left holds its constant and right its variable or CONSTANT
+    private final Operation[] operations;
+    private final int[] lefts;
+    private final int[] rights;
+    private final boolean[] mayFail;
+    private int nodes;
+
+    ConstantFolder(Operation[] program, int[] operands, int maxStackDepth, VariableSlots variables) {
+        this.source = program;
+        this.sourceOperands = operands;
+        this.sourceDepth = maxStackDepth;
+        this.variables = variables;
+        // Every instruction adds at most one node and every rewrite at most three
+        int capacity = program.length * 4 + 1;
+        this.operations = new Operation[capacity];
+        this.lefts = new int[capacity];
+        this.rights = new int[capacity];
+        this.mayFail = new boolean[capacity];
+    }
+
+    CompiledExpression fold(ProgramShapes programShapes) {
+        if (source.length == 0) {
+            return new CompiledExpression(source, sourceOperands, sourceDepth, variables, programShapes.shapeOf(source));
+        }
+        int[] operandVariables = variables.variablesByOperand(sourceOperands.length);
+        int[] stack = new int[sourceDepth];
+        int size = 0;
+        int nextOperand = 0;
+        for (Operation operation : source) {
+            if (operation == null) {
+                stack[size++] = leaf(sourceOperands[nextOperand], operandVariables[nextOperand]);
+                nextOperand++;
+            } else {
+                int right = stack[--size];
+                int left = stack[--size];
+                stack[size++] = apply(operation, left, right);
+            }
+        }
+        return emit(stack[0], programShapes);
+    }
+
+    private int apply(Operation operation, int left, int right) {
+        Class<?> type = operation.getClass();
+        boolean additive = type == AdditionOperation.class || type == SubtractionOperation.class
+                || operation == PostfixExpressionCompiler.NEGATION;
+        if (!additive && type != MultiplicationOperation.class && type != DivisionOperation.class
+                && type != PowerOperation.class) {
+            return node(operation, left, right, true);
+        }
+        if (isConstant(left) && isConstant(right)) {
+            try {
+                return leaf(operation.execute(lefts[left], lefts[right]), VariableSlots.CONSTANT);
+            } catch (ArithmeticException e) {
+                // Left for the evaluation to throw, after everything that runs before it
+                return node(operation, left, right, true);
+            }
+        }
+        if (additive) {
+            return sum(operation, left, right, type == AdditionOperation.class ? 1 : -1);
+        }
+        if (type == MultiplicationOperation.class) {
+            return product(operation, left, right);
+        }
+        if (isConstant(right) && lefts[right] == 1) {
+            return left;
+        }
+        if (type == PowerOperation.class && isConstant(right) && lefts[right] == 0 && !mayFail[left]) {
+            return leaf(1, VariableSlots.CONSTANT);
+        }
+        // A constant divisor other than zero, or a constant non-negative exponent, cannot fail
+        boolean safe = isConstant(right) && (type == DivisionOperation.class ? lefts[right] != 0 : lefts[right] >= 0);
+        return node(operation, left, right, !safe || mayFail[left] || mayFail[right]);
+    }
+
+    // (a + c1) ± (b + c2) is (a ± b) + (c1 ± c2); a lone base ends up as b + c or c - b
+    private int sum(Operation operation, int left, int right, int sign) {
+        int leftBase = additiveBase(left);
+        int rightBase = additiveBase(right);
+        int offset = additiveOffset(left) + sign * additiveOffset(right);
+        if (leftBase != NONE && rightBase != NONE) {
+            // Turning c - a into -a would need another instruction, so such a side stays whole
+            if (isDifference(left)) {
+                leftBase = left;
+                offset -= additiveOffset(left);
+            }
+            if (isDifference(right)) {
+                rightBase = right;
+                offset -= sign * additiveOffset(right);
+            }
+            int base = node(operation, leftBase, rightBase, mayFail[leftBase] || mayFail[rightBase]);
+            return offsetBy(operation, base, false, offset);
+        }
+        if (rightBase == NONE) {
+            return offsetBy(operation, leftBase, isDifference(left), offset);
+        }
+        return offsetBy(operation, rightBase, isDifference(right) != sign < 0, offset);
+    }
+
+    private int offsetBy(Operation operation, int base, boolean negated, int offset) {
+        boolean subtractive = operation.getClass() != AdditionOperation.class;
+        if (negated) {
+            return node(subtractive ? operation : SUBTRACTION, leaf(offset, VariableSlots.CONSTANT), base, mayFail[base]);
+        }
+        if (offset == 0) {
+            return base;
+        }
+        return node(subtractive ? ADDITION : operation, base, leaf(offset, VariableSlots.CONSTANT), mayFail[base]);
+    }
+
+    private int additiveBase(int node) {
+        if (isConstant(node)) {
+            return NONE;
+        }
+        if (isDifference(node)) {
+            return rights[node];
+        }
+        return hasConstantRight(node, AdditionOperation.class) ? lefts[node] : node;
+    }
+
+    private int additiveOffset(int node) {
+        if (isConstant(node)) {
+            return lefts[node];
+        }
+        if (isDifference(node)) {
+            return lefts[lefts[node]];
+        }
+        return hasConstantRight(node, AdditionOperation.class) ? lefts[rights[node]] : 0;
+    }
+
+    // c - a, including a negation, which is 0 - a
+    private boolean isDifference(int node) {
+        Operation operation = operations[node];
+        return (operation == PostfixExpressionCompiler.NEGATION
+                || operation != null && operation.getClass() == SubtractionOperation.class)
+                && isConstant(lefts[node]);
+    }
+
+    // (a * c1) * (b * c2) is (a * b) * (c1 * c2)
+    private int product(Operation operation, int left, int right) {
+        int leftBase = multiplicativeBase(left);
+        int rightBase = multiplicativeBase(right);
+        int factor = factor(left) * factor(right);
+        int base;
+        if (leftBase == NONE) {
+            base = rightBase;
+        } else if (rightBase == NONE) {
+            base = leftBase;
+        } else {
+            base = node(operation, leftBase, rightBase, mayFail[leftBase] || mayFail[rightBase]);
+        }
+        if (factor == 0 && !mayFail[base]) {
+            return leaf(0, VariableSlots.CONSTANT);
+        }
+        if (factor == 1) {
+            return base;
+        }
+        return node(operation, base, leaf(factor, VariableSlots.CONSTANT), mayFail[base]);
+    }
+
+    private int multiplicativeBase(int node) {
+        if (isConstant(node)) {
+            return NONE;
+        }
+        return hasConstantRight(node, MultiplicationOperation.class) ? lefts[node] : node;
+    }
+
+    private int factor(int node) {
+        if (isConstant(node)) {
+            return lefts[node];
+        }
+        return hasConstantRight(node, MultiplicationOperation.class) ? lefts[rights[node]] : 1;
+    }
+
+    private boolean hasConstantRight(int node, Class<? extends Operation> type) {
+        return operations[node] != null && operations[node].getClass() == type && isConstant(rights[node]);
+    }
+
+    private boolean isConstant(int node) {
+        return operations[node] == null && rights[node] == VariableSlots.CONSTANT;
+    }
+
+    private int leaf(int value, int variable) {
+        lefts[nodes] = value;
+        rights[nodes] = variable;
+        return nodes++;
+    }
+
+    private int node(Operation operation, int left, int right, boolean fails) {
+        operations[nodes] = operation;
+        lefts[nodes] = left;
+        rights[nodes] = right;
+        mayFail[nodes] = fails;
+        return nodes++;
+    }
+
+    private CompiledExpression emit(int root, ProgramShapes programShapes) {
+        // Visits root, right, left, which reversed is the postfix order
+        int[] pending = new int[nodes];
+        int[] order = new int[nodes];
+        int count = 0;
+        int top = 0;
+        pending[top++] = root;
+        while (top > 0) {
+            int node = pending[--top];
+            order[count++] = node;
+            if (operations[node] != null) {
+                pending[top++] = lefts[node];
+                pending[top++] = rights[node];
+            }
+        }
+
+        Operation[] program = new Operation[count];
+        int[] operands = new int[count];
+        int[] slotOperands = new int[count];
+        int[] slotVariables = new int[count];
+        int operandCount = 0;
+        int slotCount = 0;
+        int depth = 0;
+        int maxDepth = 0;
+        for (int i = 0; i < count; i++) {
+            int node = order[count - 1 - i];
+            program[i] = operations[node];
+            if (operations[node] != null) {
+                depth--;
+                continue;
+            }
+            if (rights[node] != VariableSlots.CONSTANT) {
+                slotOperands[slotCount] = operandCount;
+                slotVariables[slotCount++] = rights[node];
+            }
+            operands[operandCount++] = lefts[node];
+            maxDepth = Math.max(maxDepth, ++depth);
+        }
+
+        // Variables folded away, as in x * 0, still take a value so positional binding is unchanged
+        VariableSlots slots = variables.names().isEmpty() ? VariableSlots.NONE : new VariableSlots(variables.names(),
+                Arrays.copyOf(slotOperands, slotCount), Arrays.copyOf(slotVariables, slotCount));
+        return new CompiledExpression(source, program, Arrays.copyOf(operands, operandCount), maxDepth, slots,
+                programShapes.shapeOf(program));
+    }
+}
@@ -0,0 +1,85 @@
+package com.jpozarycki.calculator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.OptionalInt;
+
+// Entries are renamed into place so readers never see a partial file, and each repeats its key
+// to rule out a hash collision
+class DirectoryResultStore implements ResultStore {
+    private final Path directory;
+    private final Duration timeToLive;
+
+    DirectoryResultStore(Path directory, Duration timeToLive) {
+        this.directory = directory;
+        this.timeToLive = timeToLive;
+    }
+
+    @Override
+    public OptionalInt get(String key) {
+        Path file = file(key);
+        try {
+            if (timeToLive.isPositive()
+                    && Files.getLastModifiedTime(file).toMillis() < System.currentTimeMillis() - timeToLive.toMillis()) {
+                Files.deleteIfExists(file);
+                return OptionalInt.empty();
+            }
+            String content = Files.readString(file, StandardCharsets.UTF_8);
+            int separator = content.lastIndexOf('\n');
+            if (separator < 0 || !content.regionMatches(0, key, 0, key.length()) || separator != key.length()) {
+                return OptionalInt.empty();
+            }
+            return OptionalInt.of(Integer.parseInt(content, separator + 1, content.length(), 10));
+        } catch (NoSuchFileException e) {
+            return OptionalInt.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void put(String key, int result) {
+        Path file = file(key);
+        try {
+            Files.createDirectories(file.getParent());
+            Path temporary = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try {
+                Files.writeString(temporary, key + '\n' + result, StandardCharsets.UTF_8);
+                move(temporary, file);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Two hex digits of fan-out keep directories small on file systems that scan them linearly
+    private Path file(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            String name = HexFormat.of().formatHex(digest);
+            return directory.resolve(name.substring(0, 2)).resolve(name.substring(2));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,14 +1,45 @@
 package com.jpozarycki.calculator;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
 class DivisionOperation implements Operation {
     @Override
     public int execute(int left, int right) {
         if (right == 0) {
-            throw new ArithmeticException("Division by zero");
+            throw ExpressionError.DIVISION_BY_ZERO.exception();
+        }
+        return left / right;
+    }
+
+    @Override
+    public long execute(long left, long right) {
+        if (right == 0) {
+            throw ExpressionError.DIVISION_BY_ZERO.exception();
+        }
+        if (left == Long.MIN_VALUE && right == -1) {
+            throw ExpressionError.OVERFLOW.exception();
         }
         return left / right;
     }
 
+    @Override
+    public BigInteger execute(BigInteger left, BigInteger right) {
+        if (right.signum() == 0) {
+            throw ExpressionError.DIVISION_BY_ZERO.exception();
+        }
+        return left.divide(right);
+    }
+
+    @Override
+    public BigDecimal execute(BigDecimal left, BigDecimal right, MathContext mathContext) {
+        if (right.signum() == 0) {
+            throw ExpressionError.DIVISION_BY_ZERO.exception();
+        }
+        return left.divide(right, mathContext);
+    }
+
     @Override
     public String getSymbol() {
         return "/";
@@ -0,0 +1,6 @@
+package com.jpozarycki.calculator;
+
+enum EvaluationMode {
+    PIPELINE,
+    SINGLE_PASS
+}
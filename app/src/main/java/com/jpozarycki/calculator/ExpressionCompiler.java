@@ -0,0 +1,7 @@
+package com.jpozarycki.calculator;
+
+import java.util.List;
+
+interface ExpressionCompiler {
+    CompiledExpression compile(List<String> tokens);
+}
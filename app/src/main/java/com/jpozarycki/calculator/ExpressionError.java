@@ -0,0 +1,53 @@
+package com.jpozarycki.calculator;
+
+public enum ExpressionError {
+    EMPTY_EXPRESSION("Expression cannot be empty"),
+    INVALID_CHARACTER("Invalid character in expression. Please use only digits (0-9), operators (+, -, *, /, ^), parentheses, and spaces."),
+    MISSING_LEADING_NUMBER("Expression must start with a number"),
+    MISSING_TRAILING_NUMBER("Expression must end with a number"),
+    EXPECTED_NUMBER("Invalid expression: expected number at position "),
+    EXPECTED_OPERATOR("Invalid expression: expected operator at position "),
+    UNEXPECTED_CLOSING_PARENTHESIS("Invalid expression: unexpected closing parenthesis at position "),
+    MISSING_CLOSING_PARENTHESIS("Invalid expression: missing closing parenthesis"),
+    MISSING_VARIABLE("Missing value for variable: "),
+    UNKNOWN_VARIABLE("Unknown variable: "),
+    WRONG_VALUE_COUNT("Wrong number of values, expected "),
+    NUMBER_OUT_OF_RANGE("For input string: "),
+    DIVISION_BY_ZERO("Division by zero"),
+    FRACTIONAL_EXPONENT("Exponent must be a whole number"),
+    OVERFLOW("Arithmetic overflow"),
+    UNSUPPORTED_MODE("Operator "),
+    // Anything else, e.g. thrown by an operator plugin; its message is passed on unchanged
+    INVALID_EXPRESSION("Invalid expression");
+
+    private final String message;
+
+    ExpressionError(String message) {
+        this.message = message;
+    }
+
+    String message() {
+        return message;
+    }
+
+    String message(int position) {
+        return message + position;
+    }
+
+    String message(String detail) {
+        return message + detail;
+    }
+
+    RuntimeException exception() {
+        return ExpressionException.of(this, ExpressionException.NO_POSITION, message);
+    }
+
+    // For errors whose message ends with the index of the offending token
+    RuntimeException exception(int position) {
+        return ExpressionException.of(this, position, message(position));
+    }
+
+    RuntimeException exception(String detail) {
+        return ExpressionException.of(this, ExpressionException.NO_POSITION, message(detail));
+    }
+}
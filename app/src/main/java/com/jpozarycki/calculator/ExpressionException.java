@@ -0,0 +1,137 @@
+package com.jpozarycki.calculator;
+
+import java.math.BigInteger;
+
+// Thrown as the exception types callers already catch, but without a stack trace: the error is in
+// the input, and capturing the trace cost more than rejecting the expression
+sealed interface ExpressionException permits ExpressionException.Invalid, ExpressionException.OutOfRange,
+        ExpressionException.Arithmetic {
+    int NO_POSITION = -1;
+
+    ExpressionError error();
+
+    int position();
+
+    static RuntimeException of(ExpressionError error, int position, String message) {
+        return switch (error) {
+            case NUMBER_OUT_OF_RANGE -> new OutOfRange(position, message);
+            case DIVISION_BY_ZERO, FRACTIONAL_EXPONENT, OVERFLOW -> new Arithmetic(error, position, message);
+            default -> new Invalid(error, position, message);
+        };
+    }
+
+    static CalculationResult.Failure failure(RuntimeException e) {
+        if (e instanceof ExpressionException coded) {
+            return new CalculationResult.Failure(coded.error(), coded.position(), e.getMessage());
+        }
+        // Thrown by the JDK or an operator plugin
+        ExpressionError error = ExpressionError.INVALID_EXPRESSION;
+        if (e instanceof NumberFormatException) {
+            error = ExpressionError.NUMBER_OUT_OF_RANGE;
+        } else if (e instanceof ArithmeticException) {
+            if (ExpressionError.DIVISION_BY_ZERO.message().equals(e.getMessage())) {
+                error = ExpressionError.DIVISION_BY_ZERO;
+            } else if (ExpressionError.OVERFLOW.message().equals(e.getMessage())) {
+                error = ExpressionError.OVERFLOW;
+            }
+        }
+        return new CalculationResult.Failure(error, NO_POSITION, e.getMessage() != null ? e.getMessage() : error.message());
+    }
+
+    // Integer.parseInt for number tokens, failing with the same message but without a stack trace
+    static int parseInt(String token) {
+        // Nine digits always fit, and anything else that short is left to Integer.parseInt
+        if (token.length() < 10) {
+            return Integer.parseInt(token);
+        }
+        try {
+            if (token.length() < 19) {
+                long value = Long.parseLong(token);
+                if (value == (int) value) {
+                    return (int) value;
+                }
+            } else if (new BigInteger(token).bitLength() < Integer.SIZE) {
+                return Integer.parseInt(token);
+            }
+        } catch (NumberFormatException e) {
+            return Integer.parseInt(token);
+        }
+        throw ExpressionError.NUMBER_OUT_OF_RANGE.exception("\"" + token + "\"");
+    }
+
+    final class Invalid extends IllegalArgumentException implements ExpressionException {
+        private final ExpressionError error;
+        private final int position;
+
+        Invalid(ExpressionError error, int position, String message) {
+            super(message);
+            this.error = error;
+            this.position = position;
+        }
+
+        @Override
+        public ExpressionError error() {
+            return error;
+        }
+
+        @Override
+        public int position() {
+            return position;
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+    final class OutOfRange extends NumberFormatException implements ExpressionException {
+        private final int position;
+
+        OutOfRange(int position, String message) {
+            super(message);
+            this.position = position;
+        }
+
+        @Override
+        public ExpressionError error() {
+            return ExpressionError.NUMBER_OUT_OF_RANGE;
+        }
+
+        @Override
+        public int position() {
+            return position;
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+    final class Arithmetic extends ArithmeticException implements ExpressionException {
+        private final ExpressionError error;
+        private final int position;
+
+        Arithmetic(ExpressionError error, int position, String message) {
+            super(message);
+            this.error = error;
+            this.position = position;
+        }
+
+        @Override
+        public ExpressionError error() {
+            return error;
+        }
+
+        @Override
+        public int position() {
+            return position;
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
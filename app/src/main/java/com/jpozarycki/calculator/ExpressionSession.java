@@ -0,0 +1,88 @@
+package com.jpozarycki.calculator;
+
+import com.jpozarycki.calculator.TermTree.Term;
+
+import java.util.List;
+import java.util.Objects;
+
+// Kept as cached top-level +/- terms, so an edit re-evaluates only the terms it touches. Text that
+// does not split into standalone terms falls back to a full calculation with the same errors
+public final class ExpressionSession {
+    private final String id;
+    private final TermSplitter splitter;
+    private final CalculatorFacade calculator;
+    private final OperationRegistryFacade operationRegistry;
+    private OperatorTable operatorTable;
+    private boolean splittable;
+    private TermTree terms;
+
+    ExpressionSession(String id,
+                      String expression,
+                      TermSplitter splitter,
+                      CalculatorFacade calculator,
+                      OperationRegistryFacade operationRegistry) {
+        this.id = id;
+        this.splitter = splitter;
+        this.calculator = calculator;
+        this.operationRegistry = operationRegistry;
+        rebuild(expression);
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public synchronized String expression() {
+        return terms.text();
+    }
+
+    public synchronized int value() {
+        if (operatorTable != operationRegistry.operatorTable()) {
+            rebuild(terms.text());
+        }
+        if (terms.isComplete()) {
+            return terms.sum();
+        }
+        String expression = terms.text();
+        int result = calculator.calculate(expression);
+        rebuild(expression);
+        return result;
+    }
+
+    // The edit is kept even when the resulting text is invalid
+    public synchronized int edit(int offset, int deletedLength, String insertedText) {
+        Objects.requireNonNull(insertedText, "insertedText");
+        int length = terms.length();
+        Objects.checkFromIndexSize(offset, deletedLength, length);
+        int end = offset + deletedLength;
+        if (!splittable || operatorTable != operationRegistry.operatorTable()) {
+            String text = terms.text();
+            rebuild(text.substring(0, offset) + insertedText + text.substring(end));
+            return value();
+        }
+
+        // The terms on both sides of the edit, so an operator typed at a boundary is seen in context
+        int from = offset == 0 ? 0 : terms.indexAt(offset - 1);
+        int to = end < length ? terms.indexAt(end) + 1 : terms.count();
+        for (boolean widened = false; ; widened = true) {
+            int start = terms.startOf(from);
+            String old = terms.text(from, to);
+            String region = old.substring(0, offset - start) + insertedText + old.substring(end - start);
+            List<Term> split = splitter.split(region, from == 0, operatorTable);
+            // Deleting or adding an operator can join a term to a neighbour, so try once with both neighbours
+            if (split != null || widened || (from == 0 && to == terms.count())) {
+                terms.replace(from, to, split != null ? split : List.of(Term.unevaluated(region)));
+                return value();
+            }
+            from = Math.max(0, from - 1);
+            to = Math.min(terms.count(), to + 1);
+        }
+    }
+
+    private void rebuild(String expression) {
+        operatorTable = operationRegistry.operatorTable();
+        splittable = TermSplitter.isSplittable(operatorTable);
+        List<Term> split = splittable ? splitter.split(expression, true, operatorTable) : null;
+        terms = new TermTree(split != null ? split : List.of(Term.unevaluated(expression)));
+    }
+}
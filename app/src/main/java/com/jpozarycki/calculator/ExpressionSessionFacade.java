@@ -0,0 +1,12 @@
+package com.jpozarycki.calculator;
+
+import java.util.Optional;
+
+public interface ExpressionSessionFacade {
+    // The expression may be empty or invalid; idle sessions expire after calculator.session.expire-after-access
+    ExpressionSession open(String expression);
+
+    Optional<ExpressionSession> find(String id);
+
+    boolean close(String id);
+}
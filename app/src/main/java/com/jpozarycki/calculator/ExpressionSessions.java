@@ -0,0 +1,52 @@
+package com.jpozarycki.calculator;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+class ExpressionSessions implements ExpressionSessionFacade {
+    private final Cache<String, ExpressionSession> sessions;
+    private final TermSplitter splitter;
+    private final CalculatorFacade calculator;
+    private final OperationRegistryFacade operationRegistry;
+
+    ExpressionSessions(TermSplitter splitter,
+                       CalculatorFacade calculator,
+                       OperationRegistryFacade operationRegistry,
+                       @Value("${calculator.session.maximum-size:10000}") long maximumSize,
+                       @Value("${calculator.session.expire-after-access:30m}") Duration expireAfterAccess) {
+        this.sessions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(expireAfterAccess)
+                .build();
+        this.splitter = splitter;
+        this.calculator = calculator;
+        this.operationRegistry = operationRegistry;
+    }
+
+    @Override
+    public ExpressionSession open(String expression) {
+        Objects.requireNonNull(expression, "expression");
+        ExpressionSession session = new ExpressionSession(
+                UUID.randomUUID().toString(), expression, splitter, calculator, operationRegistry);
+        sessions.put(session.id(), session);
+        return session;
+    }
+
+    @Override
+    public Optional<ExpressionSession> find(String id) {
+        return Optional.ofNullable(sessions.getIfPresent(id));
+    }
+
+    @Override
+    public boolean close(String id) {
+        return sessions.asMap().remove(id) != null;
+    }
+}
@@ -4,4 +4,7 @@ import java.util.List;
 
 interface ExpressionTokenizer {
     List<String> tokenize(String expression);
+
+    // Variables are ASCII letters, digits and underscores, not starting with a digit
+    List<String> tokenizeWithVariables(String expression);
 } 
\ No newline at end of file
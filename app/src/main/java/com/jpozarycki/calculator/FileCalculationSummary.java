@@ -0,0 +1,6 @@
+package com.jpozarycki.calculator;
+
+import java.time.Duration;
+
+public record FileCalculationSummary(long expressions, long errors, long bytes, Duration elapsed) {
+}
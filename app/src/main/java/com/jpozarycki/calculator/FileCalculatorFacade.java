@@ -0,0 +1,8 @@
+package com.jpozarycki.calculator;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+public interface FileCalculatorFacade {
+    FileCalculationSummary calculate(Path input, Path output) throws IOException;
+}
@@ -0,0 +1,5 @@
+package com.jpozarycki.calculator;
+
+interface GeneratedProgram {
+    int evaluate(int[] operands);
+}
@@ -0,0 +1,237 @@
+package com.jpozarycki.calculator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Segments end at line boundaries and write their own part files, which are concatenated in order
+@Component
+class MappedFileCalculator implements FileCalculatorFacade {
+    private static final long MAX_SEGMENT_BYTES = 1L << 28;
+    private static final int OUTPUT_BUFFER_BYTES = 1 << 16;
+    private static final int SCAN_BUFFER_BYTES = 1 << 13;
+    private static final byte[] ERROR_PREFIX = "error: ".getBytes(StandardCharsets.US_ASCII);
+
+    private final SinglePassExpressionEvaluator evaluator;
+    private final int parallelism;
+
+    MappedFileCalculator(SinglePassExpressionEvaluator evaluator,
+                         @Value("${calculator.file.parallelism:0}") int parallelism) {
+        this.evaluator = evaluator;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    @Override
+    public FileCalculationSummary calculate(Path input, Path output) throws IOException {
+        long started = System.nanoTime();
+        Path directory = output.toAbsolutePath().getParent();
+
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] boundaries = splitAtLines(channel, size);
+            List<Path> parts = new ArrayList<>();
+            ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+            try {
+                List<Future<Segment>> segments = new ArrayList<>();
+                for (int i = 0; i + 1 < boundaries.length; i++) {
+                    Path part = Files.createTempFile(directory, output.getFileName().toString(), ".part");
+                    parts.add(part);
+                    long start = boundaries[i];
+                    long end = boundaries[i + 1];
+                    segments.add(executor.submit(() -> calculateSegment(channel, start, end, part)));
+                }
+
+                long expressions = 0;
+                long errors = 0;
+                for (Future<Segment> segment : segments) {
+                    Segment result = await(segment);
+                    expressions += result.expressions();
+                    errors += result.errors();
+                }
+                concatenate(parts, output);
+                return new FileCalculationSummary(expressions, errors, size, Duration.ofNanos(System.nanoTime() - started));
+            } finally {
+                executor.shutdownNow();
+                for (Path part : parts) {
+                    Files.deleteIfExists(part);
+                }
+            }
+        }
+    }
+
+    private long[] splitAtLines(FileChannel channel, long size) throws IOException {
+        int segmentCount = (int) Math.max(parallelism, (size + MAX_SEGMENT_BYTES - 1) / MAX_SEGMENT_BYTES);
+        long[] boundaries = new long[segmentCount + 1];
+        int count = 1;
+        ByteBuffer scan = ByteBuffer.allocate(SCAN_BUFFER_BYTES);
+
+        for (int i = 1; i < segmentCount; i++) {
+            long boundary = nextLineStart(channel, Math.max(size / segmentCount * i, boundaries[count - 1]), size, scan);
+            if (boundary > boundaries[count - 1] && boundary < size) {
+                boundaries[count++] = boundary;
+            }
+        }
+        if (size > 0) {
+            boundaries[count++] = size;
+        }
+
+        for (int i = 1; i < count; i++) {
+            if (boundaries[i] - boundaries[i - 1] > Integer.MAX_VALUE) {
+                throw new IOException("Line too long to map starting near byte " + boundaries[i - 1]);
+            }
+        }
+        return Arrays.copyOf(boundaries, count);
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, long size, ByteBuffer scan) throws IOException {
+        while (position < size) {
+            scan.clear();
+            int read = channel.read(scan, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (scan.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private Segment calculateSegment(FileChannel channel, long start, long end, Path part) throws IOException {
+        MappedByteBuffer input = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        try (FileChannel outputChannel = FileChannel.open(part, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            SegmentWriter writer = new SegmentWriter(outputChannel);
+            AsciiByteSequence line = new AsciiByteSequence();
+            long expressions = 0;
+            long errors = 0;
+            int lineStart = 0;
+            int limit = input.limit();
+
+            for (int i = 0; i <= limit; i++) {
+                if (i < limit && input.get(i) != '\n') {
+                    continue;
+                }
+                if (i == limit && lineStart == limit) {
+                    break;
+                }
+                expressions++;
+                try {
+                    writer.writeInt(evaluator.evaluate(line.wrap(input, lineStart, i - lineStart)));
+                } catch (IllegalArgumentException | ArithmeticException e) {
+                    errors++;
+                    writer.write(ERROR_PREFIX);
+                    writer.write(String.valueOf(e.getMessage()).getBytes(StandardCharsets.UTF_8));
+                }
+                writer.write('\n');
+                lineStart = i + 1;
+            }
+            writer.flush();
+            return new Segment(expressions, errors);
+        }
+    }
+
+    private static void concatenate(List<Path> parts, Path output) throws IOException {
+        try (FileChannel outputChannel = FileChannel.open(output, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Path part : parts) {
+                try (FileChannel partChannel = FileChannel.open(part, StandardOpenOption.READ)) {
+                    long size = partChannel.size();
+                    long transferred = 0;
+                    while (transferred < size) {
+                        transferred += partChannel.transferTo(transferred, size - transferred, outputChannel);
+                    }
+                }
+            }
+        }
+    }
+
+    private static Segment await(Future<Segment> segment) throws IOException {
+        try {
+            return segment.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while calculating file", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private record Segment(long expressions, long errors) {
+    }
+
+    private static final class SegmentWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(OUTPUT_BUFFER_BYTES);
+        private final byte[] digits = new byte[11];
+
+        SegmentWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void writeInt(int value) throws IOException {
+            long remaining = Math.abs((long) value);
+            int position = digits.length;
+            do {
+                digits[--position] = (byte) ('0' + remaining % 10);
+                remaining /= 10;
+            } while (remaining > 0);
+            if (value < 0) {
+                digits[--position] = '-';
+            }
+            write(digits, position, digits.length - position);
+        }
+
+        void write(byte[] bytes) throws IOException {
+            write(bytes, 0, bytes.length);
+        }
+
+        void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                int chunk = Math.min(length, buffer.remaining());
+                buffer.put(bytes, offset, chunk);
+                offset += chunk;
+                length -= chunk;
+            }
+        }
+
+        void write(char ch) throws IOException {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put((byte) ch);
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
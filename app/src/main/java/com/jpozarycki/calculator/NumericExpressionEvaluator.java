@@ -0,0 +1,171 @@
+package com.jpozarycki.calculator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+// Same shunting-yard scheme as ShuntingYardEvaluator, so errors surface in the same order
+@Component
+class NumericExpressionEvaluator {
+    static final int MAX_SCALE = 9999;
+
+    private final OperationRegistryFacade operationRegistry;
+    private final MathContext mathContext;
+    private final int scale;
+
+    NumericExpressionEvaluator(OperationRegistryFacade operationRegistry,
+                               @Value("${calculator.decimal.precision:34}") int precision,
+                               @Value("${calculator.decimal.rounding-mode:HALF_EVEN}") RoundingMode roundingMode,
+                               @Value("${calculator.decimal.scale:-1}") int scale) {
+        this.operationRegistry = operationRegistry;
+        this.mathContext = new MathContext(precision, roundingMode);
+        this.scale = scale;
+    }
+
+    Number evaluate(List<String> tokens, NumericMode mode) {
+        return switch (mode) {
+            case INT -> throw new IllegalStateException("int expressions are evaluated by the ExpressionEvaluator");
+            case LONG -> evaluateLong(tokens);
+            case BIG_INTEGER -> evaluate(tokens, BigInteger::new, BigInteger::negate, Operation::execute);
+            case DECIMAL -> round(evaluate(tokens, BigDecimal::new, BigDecimal::negate,
+                    (operation, left, right) -> operation.execute(left, right, mathContext)));
+        };
+    }
+
+    long evaluateLong(List<String> tokens) {
+        OperatorTable operatorTable = operationRegistry.operatorTable();
+        long[] operands = new long[tokens.size() / 2 + 1];
+        int[] operators = new int[tokens.size()];
+        int operandCount = 0;
+        int operatorCount = 0;
+        boolean expectOperand = true;
+
+        for (String token : tokens) {
+            char first = token.charAt(0);
+            if (isNumber(token)) {
+                operands[operandCount++] = Long.parseLong(token);
+                expectOperand = false;
+            } else if (first == '(') {
+                operators[operatorCount++] = OperatorTable.LEFT_PARENTHESIS;
+            } else if (first == ')') {
+                while (operators[operatorCount - 1] != OperatorTable.LEFT_PARENTHESIS) {
+                    operandCount = applyLong(operands, operandCount, operatorTable, operators[--operatorCount]);
+                }
+                operatorCount--;
+            } else if (expectOperand) {
+                if (first == '-') {
+                    operators[operatorCount++] = OperatorTable.NEGATE;
+                }
+            } else {
+                int operator = operatorTable.indexOf(token);
+                while (operatorCount > 0 && operatorTable.shouldPop(operators[operatorCount - 1], operator)) {
+                    operandCount = applyLong(operands, operandCount, operatorTable, operators[--operatorCount]);
+                }
+                operators[operatorCount++] = operator;
+                expectOperand = true;
+            }
+        }
+        while (operatorCount > 0) {
+            operandCount = applyLong(operands, operandCount, operatorTable, operators[--operatorCount]);
+        }
+        return operands[0];
+    }
+
+    private static int applyLong(long[] operands, int operandCount, OperatorTable operatorTable, int operator) {
+        if (operator == OperatorTable.NEGATE) {
+            if (operands[operandCount - 1] == Long.MIN_VALUE) {
+                throw ExpressionError.OVERFLOW.exception();
+            }
+            operands[operandCount - 1] = -operands[operandCount - 1];
+            return operandCount;
+        }
+        Operation operation = operatorTable.operation(operator);
+        operands[operandCount - 2] = operation.execute(operands[operandCount - 2], operands[operandCount - 1]);
+        return operandCount - 1;
+    }
+
+    private <T> T evaluate(List<String> tokens, Function<String, T> parser, UnaryOperator<T> negate,
+                           Arithmetic<T> arithmetic) {
+        OperatorTable operatorTable = operationRegistry.operatorTable();
+        @SuppressWarnings("unchecked")
+        T[] operands = (T[]) new Object[tokens.size() / 2 + 1];
+        int[] operators = new int[tokens.size()];
+        int operandCount = 0;
+        int operatorCount = 0;
+        boolean expectOperand = true;
+
+        for (String token : tokens) {
+            char first = token.charAt(0);
+            if (isNumber(token)) {
+                operands[operandCount++] = parser.apply(token);
+                expectOperand = false;
+            } else if (first == '(') {
+                operators[operatorCount++] = OperatorTable.LEFT_PARENTHESIS;
+            } else if (first == ')') {
+                while (operators[operatorCount - 1] != OperatorTable.LEFT_PARENTHESIS) {
+                    operandCount = apply(operands, operandCount, operatorTable, operators[--operatorCount], negate, arithmetic);
+                }
+                operatorCount--;
+            } else if (expectOperand) {
+                if (first == '-') {
+                    operators[operatorCount++] = OperatorTable.NEGATE;
+                }
+            } else {
+                int operator = operatorTable.indexOf(token);
+                while (operatorCount > 0 && operatorTable.shouldPop(operators[operatorCount - 1], operator)) {
+                    operandCount = apply(operands, operandCount, operatorTable, operators[--operatorCount], negate, arithmetic);
+                }
+                operators[operatorCount++] = operator;
+                expectOperand = true;
+            }
+        }
+        while (operatorCount > 0) {
+            operandCount = apply(operands, operandCount, operatorTable, operators[--operatorCount], negate, arithmetic);
+        }
+        return operands[0];
+    }
+
+    private static <T> int apply(T[] operands, int operandCount, OperatorTable operatorTable, int operator,
+                                 UnaryOperator<T> negate, Arithmetic<T> arithmetic) {
+        if (operator == OperatorTable.NEGATE) {
+            operands[operandCount - 1] = negate.apply(operands[operandCount - 1]);
+            return operandCount;
+        }
+        Operation operation = operatorTable.operation(operator);
+        operands[operandCount - 2] = arithmetic.apply(operation, operands[operandCount - 2], operands[operandCount - 1]);
+        return operandCount - 1;
+    }
+
+    // Without a configured scale, trailing zeros are dropped so 10 / 4 is 2.5 and 2 * 3 is 6.
+    // Results are refused past MAX_SCALE, which is as far as Jackson writes plain decimals
+    private BigDecimal round(BigDecimal result) {
+        BigDecimal rounded = result.round(mathContext);
+        if (scale < 0) {
+            rounded = rounded.stripTrailingZeros();
+        } else if (rounded.scale() >= -MAX_SCALE) {
+            rounded = rounded.setScale(scale, mathContext.getRoundingMode());
+        }
+        if (rounded.scale() < -MAX_SCALE || rounded.scale() > MAX_SCALE) {
+            throw ExpressionError.OVERFLOW.exception();
+        }
+        return rounded;
+    }
+
+    // Tokens are validated by now, so a leading digit or a minus followed by more characters is a number
+    private static boolean isNumber(String token) {
+        char first = token.charAt(0);
+        return (first >= '0' && first <= '9') || (first == '-' && token.length() > 1);
+    }
+
+    @FunctionalInterface
+    private interface Arithmetic<T> {
+        T apply(Operation operation, T left, T right);
+    }
+}
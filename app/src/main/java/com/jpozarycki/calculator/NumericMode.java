@@ -0,0 +1,9 @@
+package com.jpozarycki.calculator;
+
+// Literals are parsed in the mode's type, so 2147483648 is only valid outside INT
+public enum NumericMode {
+    INT,
+    LONG,
+    BIG_INTEGER,
+    DECIMAL
+}
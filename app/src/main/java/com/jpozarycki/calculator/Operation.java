@@ -1,7 +1,26 @@
 package com.jpozarycki.calculator;
 
-interface Operation {
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+public interface Operation {
     int execute(int left, int right);
+
+    // An operation that only defines the int overload is refused in the wider modes rather than
+    // narrowing their operands, which would wrap or fail with the JDK's message
+    default long execute(long left, long right) {
+        throw ExpressionError.UNSUPPORTED_MODE.exception(getSymbol() + " does not support " + NumericMode.LONG);
+    }
+
+    default BigInteger execute(BigInteger left, BigInteger right) {
+        throw ExpressionError.UNSUPPORTED_MODE.exception(getSymbol() + " does not support " + NumericMode.BIG_INTEGER);
+    }
+
+    default BigDecimal execute(BigDecimal left, BigDecimal right, MathContext mathContext) {
+        throw ExpressionError.UNSUPPORTED_MODE.exception(getSymbol() + " does not support " + NumericMode.DECIMAL);
+    }
+
     String getSymbol();
     int getPrecedence();
     boolean isLeftAssociative();
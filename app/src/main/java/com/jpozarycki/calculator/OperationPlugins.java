@@ -0,0 +1,142 @@
+package com.jpozarycki.calculator;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Each plugin jar gets its own class loader, so a removed or replaced jar's operations can be
+// unregistered and its loader closed without a restart
+@Slf4j
+@Component
+class OperationPlugins {
+    private final OperationRegistryFacade operationRegistry;
+    private final ObjectProvider<Operation> operationBeans;
+    private final Path directory;
+    private final Duration reloadInterval;
+    private final Map<Path, LoadedJar> loadedJars = new HashMap<>();
+    private ScheduledExecutorService reloader;
+
+    OperationPlugins(OperationRegistryFacade operationRegistry,
+                     ObjectProvider<Operation> operationBeans,
+                     @Value("${calculator.plugins.directory:}") String directory,
+                     @Value("${calculator.plugins.reload-interval:0s}") Duration reloadInterval) {
+        this.operationRegistry = operationRegistry;
+        this.operationBeans = operationBeans;
+        this.directory = directory.isBlank() ? null : Path.of(directory);
+        this.reloadInterval = reloadInterval;
+    }
+
+    @PostConstruct
+    void start() {
+        operationBeans.orderedStream().forEach(operationRegistry::register);
+        for (Operation operation : load(ServiceLoader.load(Operation.class, getClass().getClassLoader()), null)) {
+            operationRegistry.register(operation);
+        }
+        reload();
+        if (directory != null && reloadInterval.isPositive()) {
+            reloader = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("calculator-plugins").daemon().factory());
+            reloader.scheduleWithFixedDelay(this::reload, reloadInterval.toMillis(), reloadInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    synchronized void stop() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+        for (LoadedJar jar : loadedJars.values()) {
+            jar.close();
+        }
+        loadedJars.clear();
+    }
+
+    synchronized void reload() {
+        if (directory == null) {
+            return;
+        }
+        Map<Path, FileTime> jars = new HashMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files.filter(path -> path.toString().endsWith(".jar"))::iterator) {
+                jars.put(file, Files.getLastModifiedTime(file));
+            }
+        } catch (IOException e) {
+            log.warn("Cannot list plugin directory {}", directory, e);
+            return;
+        }
+
+        loadedJars.entrySet().removeIf(loaded -> {
+            if (loaded.getValue().modified().equals(jars.get(loaded.getKey()))) {
+                return false;
+            }
+            loaded.getValue().operations().forEach(operationRegistry::unregister);
+            loaded.getValue().close();
+            log.info("Unloaded operator plugin {}", loaded.getKey());
+            return true;
+        });
+
+        jars.forEach((jar, modified) -> {
+            if (!loadedJars.containsKey(jar)) {
+                loadJar(jar, modified);
+            }
+        });
+    }
+
+    private void loadJar(Path jar, FileTime modified) {
+        URLClassLoader classLoader;
+        try {
+            classLoader = new URLClassLoader(new URL[]{jar.toUri().toURL()}, getClass().getClassLoader());
+        } catch (MalformedURLException e) {
+            log.warn("Cannot load operator plugin {}", jar, e);
+            return;
+        }
+        List<Operation> operations = load(ServiceLoader.load(Operation.class, classLoader), classLoader);
+        operations.forEach(operationRegistry::register);
+        loadedJars.put(jar, new LoadedJar(modified, classLoader, operations));
+        log.info("Loaded operator plugin {} with {}", jar, operations.stream().map(Operation::getSymbol).toList());
+    }
+
+    // A jar's loader also sees the application's providers, so only classes the jar defines are taken from it
+    private static List<Operation> load(ServiceLoader<Operation> loader, ClassLoader definingLoader) {
+        List<Operation> operations = new ArrayList<>();
+        try {
+            loader.stream()
+                    .filter(provider -> definingLoader == null || provider.type().getClassLoader() == definingLoader)
+                    .forEach(provider -> operations.add(provider.get()));
+        } catch (ServiceConfigurationError e) {
+            log.warn("Cannot instantiate operator plugin", e);
+        }
+        return operations;
+    }
+
+    private record LoadedJar(FileTime modified, URLClassLoader classLoader, List<Operation> operations) {
+        void close() {
+            try {
+                classLoader.close();
+            } catch (IOException e) {
+                log.warn("Cannot close plugin class loader", e);
+            }
+        }
+    }
+}
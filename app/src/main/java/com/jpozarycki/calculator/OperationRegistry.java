@@ -1,32 +1,103 @@
 package com.jpozarycki.calculator;
 
 import org.springframework.stereotype.Component;
-import java.util.HashMap;
+
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 @Component
 class OperationRegistry implements OperationRegistryFacade {
-    private final Map<String, Operation> operations;
+    private final List<Consumer<String>> changeListeners = new CopyOnWriteArrayList<>();
+    // Writers serialize on the registry and swap in a complete table, so readers never lock
+    private volatile OperatorTable operatorTable = new OperatorTable(List.of());
 
     OperationRegistry() {
-        operations = new HashMap<>();
         registerDefaultOperations();
     }
 
-    public void register(Operation operation) {
-        operations.put(operation.getSymbol(), operation);
+    @Override
+    public synchronized void register(Operation operation) {
+        String symbol = operation.getSymbol();
+        requireValidSymbol(symbol);
+        Map<String, Operation> operations = operations();
+        operations.put(symbol, operation);
+        publish(operations, symbol);
+    }
+
+    @Override
+    public synchronized boolean unregister(Operation operation) {
+        String symbol = operation.getSymbol();
+        if (operatorTable.find(symbol) != operation) {
+            return false;
+        }
+        Map<String, Operation> operations = operations();
+        operations.remove(symbol);
+        publish(operations, symbol);
+        return true;
+    }
+
+    @Override
+    public void addChangeListener(Consumer<String> listener) {
+        changeListeners.add(listener);
     }
 
+    @Override
     public Operation getOperation(String symbol) {
-        Operation operation = operations.get(symbol);
+        Operation operation = operatorTable.find(symbol);
         if (operation == null) {
             throw new IllegalArgumentException("Unknown operator: " + symbol);
         }
         return operation;
     }
 
+    @Override
+    public Operation findOperation(char symbol) {
+        return operatorTable.find(symbol);
+    }
+
+    @Override
+    public OperatorTable operatorTable() {
+        return operatorTable;
+    }
+
+    @Override
     public boolean isValidOperator(String symbol) {
-        return operations.containsKey(symbol);
+        return operatorTable.indexOf(symbol) >= 0;
+    }
+
+    private Map<String, Operation> operations() {
+        OperatorTable current = operatorTable;
+        Map<String, Operation> operations = new LinkedHashMap<>();
+        for (int index = 0; index < current.size(); index++) {
+            Operation operation = current.operation(index);
+            operations.put(operation.getSymbol(), operation);
+        }
+        return operations;
+    }
+
+    private void publish(Map<String, Operation> operations, String changedSymbol) {
+        operatorTable = new OperatorTable(operations.values());
+        for (Consumer<String> listener : changeListeners) {
+            listener.accept(changedSymbol);
+        }
+    }
+
+    // The tokenizers read operators one character at a time, and digits, letters, spaces and
+    // parentheses already mean something to them
+    private static void requireValidSymbol(String symbol) {
+        if (symbol == null || symbol.isEmpty()) {
+            throw new IllegalArgumentException("Operator symbol cannot be empty");
+        }
+        if (symbol.length() != 1) {
+            throw new IllegalArgumentException("Operator symbol must be a single character: " + symbol);
+        }
+        char ch = symbol.charAt(0);
+        if (Character.isLetterOrDigit(ch) || Character.isWhitespace(ch) || ch == '_' || ch == '(' || ch == ')') {
+            throw new IllegalArgumentException("Invalid operator symbol: " + symbol);
+        }
     }
 
     private void registerDefaultOperations() {
@@ -34,5 +105,6 @@ class OperationRegistry implements OperationRegistryFacade {
         register(new SubtractionOperation());
         register(new MultiplicationOperation());
         register(new DivisionOperation());
+        register(new PowerOperation());
     }
-} 
\ No newline at end of file
+}
@@ -1,7 +1,18 @@
 package com.jpozarycki.calculator;
 
+import java.util.function.Consumer;
+
 interface OperationRegistryFacade {
     void register(Operation operation);
+
+    // Removes the operation only if it is still the one registered for its symbol
+    boolean unregister(Operation operation);
+
+    // Listeners are called with the changed symbol after the new operator table is published
+    void addChangeListener(Consumer<String> listener);
+
     Operation getOperation(String symbol);
+    Operation findOperation(char symbol);
+    OperatorTable operatorTable();
     boolean isValidOperator(String symbol);
 }
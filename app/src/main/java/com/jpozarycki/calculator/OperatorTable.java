@@ -0,0 +1,130 @@
+package com.jpozarycki.calculator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+
+// Precedence and associativity sit in primitive arrays so evaluators compare operators without
+// virtual calls; NEGATE and LEFT_PARENTHESIS share the operator stacks with operation indexes
+final class OperatorTable {
+    static final int NEGATE = -1;
+    static final int LEFT_PARENTHESIS = -2;
+
+    private static final int ASCII_TABLE_SIZE = 128;
+
+    private final Operation[] operations;
+    private final int[] precedence;
+    private final boolean[] leftAssociative;
+    private final int[] asciiIndex = new int[ASCII_TABLE_SIZE];
+    private final Map<String, Integer> symbolIndex = new HashMap<>();
+    private final String fingerprint;
+
+    OperatorTable(Collection<Operation> operations) {
+        this.operations = operations.toArray(new Operation[0]);
+        this.precedence = new int[this.operations.length];
+        this.leftAssociative = new boolean[this.operations.length];
+        Arrays.fill(asciiIndex, -1);
+
+        for (int index = 0; index < this.operations.length; index++) {
+            Operation operation = this.operations[index];
+            String symbol = operation.getSymbol();
+            precedence[index] = operation.getPrecedence();
+            leftAssociative[index] = operation.isLeftAssociative();
+            symbolIndex.put(symbol, index);
+            if (symbol.length() == 1 && symbol.charAt(0) < ASCII_TABLE_SIZE) {
+                asciiIndex[symbol.charAt(0)] = index;
+            }
+        }
+        this.fingerprint = fingerprint(this.operations);
+    }
+
+    int indexOf(char symbol) {
+        if (symbol < ASCII_TABLE_SIZE) {
+            return asciiIndex[symbol];
+        }
+        return symbolIndex.getOrDefault(String.valueOf(symbol), -1);
+    }
+
+    int indexOf(String symbol) {
+        if (symbol.length() == 1) {
+            return indexOf(symbol.charAt(0));
+        }
+        return symbolIndex.getOrDefault(symbol, -1);
+    }
+
+    Operation operation(int index) {
+        return operations[index];
+    }
+
+    Operation find(char symbol) {
+        int index = indexOf(symbol);
+        return index >= 0 ? operations[index] : null;
+    }
+
+    Operation find(String symbol) {
+        int index = indexOf(symbol);
+        return index >= 0 ? operations[index] : null;
+    }
+
+    // Negation binds tighter than any binary operator, and nothing pops past an open parenthesis
+    boolean shouldPop(int stackIndex, int currentIndex) {
+        if (stackIndex < 0) {
+            return stackIndex == NEGATE;
+        }
+        return precedence[stackIndex] > precedence[currentIndex] ||
+               (precedence[stackIndex] == precedence[currentIndex] && leftAssociative[currentIndex]);
+    }
+
+    int size() {
+        return operations.length;
+    }
+
+    // Covers the bytecode of each operation's classes, so a plugin rebuilt under the same class name
+    // gets a new fingerprint; the application version covers the evaluators
+    String fingerprint() {
+        return fingerprint;
+    }
+
+    private static String fingerprint(Operation[] operations) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        String version = Objects.toString(OperatorTable.class.getPackage().getImplementationVersion(), "");
+        digest.update((version + '\n').getBytes(StandardCharsets.UTF_8));
+        Arrays.stream(operations)
+                .sorted(Comparator.comparing(Operation::getSymbol))
+                .forEach(operation -> {
+                    digest.update((operation.getSymbol() + ' ' + operation.getClass().getName() + ' ' +
+                            operation.getPrecedence() + ' ' + operation.isLeftAssociative() + '\n')
+                            .getBytes(StandardCharsets.UTF_8));
+                    // The class and its superclasses, up to the JDK's own
+                    for (Class<?> type = operation.getClass(); type.getClassLoader() != null; type = type.getSuperclass()) {
+                        digest.update(bytecode(type));
+                    }
+                });
+        return HexFormat.of().formatHex(digest.digest(), 0, 8);
+    }
+
+    // Hidden classes have no class file to read, and are told apart by name alone
+    private static byte[] bytecode(Class<?> type) {
+        String resource = type.getName().replace('.', '/') + ".class";
+        try (InputStream classFile = type.getClassLoader().getResourceAsStream(resource)) {
+            return classFile == null ? new byte[0] : classFile.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
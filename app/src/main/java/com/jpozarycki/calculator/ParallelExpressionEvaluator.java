@@ -0,0 +1,175 @@
+package com.jpozarycki.calculator;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Int addition wraps the same in any order, so summing terms in parallel is bit-identical, and the
+// leftmost failing term's error is the one the sequential evaluator would throw
+@Primary
+@Component
+class ParallelExpressionEvaluator implements ExpressionEvaluator {
+    // Below this many tokens a subtask just runs its terms sequentially
+    private static final int LEAF_TOKENS = 4096;
+
+    private final ShuntingYardEvaluator sequential;
+    private final OperationRegistryFacade operationRegistry;
+    private final int threshold;
+    private final ForkJoinPool pool;
+
+    ParallelExpressionEvaluator(ShuntingYardEvaluator sequential,
+                                OperationRegistryFacade operationRegistry,
+                                @Value("${calculator.parallel.threshold:20000}") int threshold,
+                                @Value("${calculator.parallel.parallelism:0}") int parallelism) {
+        this.sequential = sequential;
+        this.operationRegistry = operationRegistry;
+        this.threshold = threshold;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public int evaluate(List<String> tokens) {
+        if (threshold <= 0 || tokens.size() < threshold) {
+            return sequential.evaluate(tokens);
+        }
+        OperatorTable operatorTable = operationRegistry.operatorTable();
+        if (!isSplittable(operatorTable)) {
+            return sequential.evaluate(tokens);
+        }
+
+        int[] boundaries = findTermBoundaries(tokens, operatorTable);
+        if (boundaries.length == 0) {
+            return sequential.evaluate(tokens);
+        }
+
+        Partial result = pool.invoke(new TermsTask(tokens, boundaries, operatorTable, 0, boundaries.length + 1));
+        if (result.error != null) {
+            throw result.error;
+        }
+        return result.sum;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    // Splitting is only sound when + and - are the sole lowest-precedence operators
+    private static boolean isSplittable(OperatorTable operatorTable) {
+        int additivePrecedence = Integer.MAX_VALUE;
+        int otherPrecedence = Integer.MAX_VALUE;
+        for (int index = 0; index < operatorTable.size(); index++) {
+            Operation operation = operatorTable.operation(index);
+            if (isAdditive(operation)) {
+                additivePrecedence = Math.min(additivePrecedence, operation.getPrecedence());
+            } else {
+                otherPrecedence = Math.min(otherPrecedence, operation.getPrecedence());
+            }
+        }
+        return additivePrecedence < otherPrecedence;
+    }
+
+    private static boolean isAdditive(Operation operation) {
+        return operation instanceof AdditionOperation || operation instanceof SubtractionOperation;
+    }
+
+    // Binary operators follow an operand or a closing parenthesis; signs sit where an operand belongs
+    private static int[] findTermBoundaries(List<String> tokens, OperatorTable operatorTable) {
+        int[] boundaries = new int[16];
+        int count = 0;
+        int depth = 0;
+        boolean expectOperand = true;
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            int operator = operatorTable.indexOf(token);
+            if (token.equals("(")) {
+                depth++;
+            } else if (token.equals(")")) {
+                depth--;
+            } else if (operator < 0) {
+                expectOperand = false;
+            } else if (!expectOperand) {
+                expectOperand = true;
+                if (depth == 0 && isAdditive(operatorTable.operation(operator))) {
+                    if (count == boundaries.length) {
+                        boundaries = Arrays.copyOf(boundaries, count * 2);
+                    }
+                    boundaries[count++] = i;
+                }
+            }
+        }
+        return Arrays.copyOf(boundaries, count);
+    }
+
+    private record Partial(int sum, RuntimeException error) {
+    }
+
+    private final class TermsTask extends RecursiveTask<Partial> {
+        private final List<String> tokens;
+        private final int[] boundaries;
+        private final OperatorTable operatorTable;
+        private final int fromTerm;
+        private final int toTerm;
+
+        TermsTask(List<String> tokens, int[] boundaries, OperatorTable operatorTable, int fromTerm, int toTerm) {
+            this.tokens = tokens;
+            this.boundaries = boundaries;
+            this.operatorTable = operatorTable;
+            this.fromTerm = fromTerm;
+            this.toTerm = toTerm;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (toTerm - fromTerm == 1 || termEnd(toTerm - 1) - termStart(fromTerm) <= LEAF_TOKENS) {
+                return computeSequentially();
+            }
+            int middle = (fromTerm + toTerm) >>> 1;
+            TermsTask right = new TermsTask(tokens, boundaries, operatorTable, middle, toTerm);
+            right.fork();
+            Partial left = new TermsTask(tokens, boundaries, operatorTable, fromTerm, middle).compute();
+            if (left.error != null) {
+                right.cancel(false);
+                return left;
+            }
+            Partial rightResult = right.join();
+            if (rightResult.error != null) {
+                return rightResult;
+            }
+            return new Partial(left.sum + rightResult.sum, null);
+        }
+
+        private Partial computeSequentially() {
+            int sum = 0;
+            for (int term = fromTerm; term < toTerm; term++) {
+                int value;
+                try {
+                    value = sequential.evaluate(tokens.subList(termStart(term), termEnd(term)));
+                } catch (RuntimeException e) {
+                    return new Partial(0, e);
+                }
+                sum += isNegated(term) ? -value : value;
+            }
+            return new Partial(sum, null);
+        }
+
+        private int termStart(int term) {
+            return term == 0 ? 0 : boundaries[term - 1] + 1;
+        }
+
+        private int termEnd(int term) {
+            return term == boundaries.length ? tokens.size() : boundaries[term];
+        }
+
+        private boolean isNegated(int term) {
+            return term > 0 && operatorTable.operation(operatorTable.indexOf(tokens.get(boundaries[term - 1])))
+                    instanceof SubtractionOperation;
+        }
+    }
+}
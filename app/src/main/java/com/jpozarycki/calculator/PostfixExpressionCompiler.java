@@ -0,0 +1,141 @@
+package com.jpozarycki.calculator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.jpozarycki.calculator.util.VariableUtil.isVariable;
+
+// Programs only have binary instructions: a unary minus becomes 0 - x with a subtraction that binds
+// tighter than any binary operator
+@Component
+class PostfixExpressionCompiler implements ExpressionCompiler {
+    static final Operation NEGATION = new SubtractionOperation() {
+        @Override
+        public int getPrecedence() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public boolean isLeftAssociative() {
+            return false;
+        }
+    };
+
+    private final OperationRegistryFacade operationRegistry;
+    private final ProgramShapes programShapes;
+    private final boolean constantFolding;
+
+    PostfixExpressionCompiler(OperationRegistryFacade operationRegistry, ProgramShapes programShapes,
+                              @Value("${calculator.constant-folding:true}") boolean constantFolding) {
+        this.operationRegistry = operationRegistry;
+        this.programShapes = programShapes;
+        this.constantFolding = constantFolding;
+    }
+
+    @Override
+    public CompiledExpression compile(List<String> tokens) {
+        // A unary minus takes two instructions and an extra operand
+        Operation[] program = new Operation[tokens.size() * 2];
+        int[] operands = new int[tokens.size() + 1];
+        int programLength = 0;
+        int operandCount = 0;
+        int depth = 0;
+        int maxDepth = 0;
+        // A null entry marks an open parenthesis
+        Operation[] operators = new Operation[tokens.size()];
+        int operatorCount = 0;
+        boolean expectOperand = true;
+        List<String> variables = new ArrayList<>();
+        int[] variableOperands = new int[0];
+        int[] variableIndexes = new int[0];
+        int slotCount = 0;
+
+        for (String token : tokens) {
+            if (token.equals("(")) {
+                operators[operatorCount++] = null;
+            } else if (token.equals(")")) {
+                while (operators[operatorCount - 1] != null) {
+                    program[programLength++] = operators[--operatorCount];
+                    depth--;
+                }
+                operatorCount--;
+            } else if (expectOperand && operationRegistry.isValidOperator(token)) {
+                if (token.equals("-")) {
+                    program[programLength++] = null;
+                    operands[operandCount++] = 0;
+                    maxDepth = Math.max(maxDepth, ++depth);
+                    operators[operatorCount++] = NEGATION;
+                }
+            } else if (operationRegistry.isValidOperator(token)) {
+                Operation currentOp = operationRegistry.getOperation(token);
+                while (operatorCount > 0 && shouldPopOperator(operators[operatorCount - 1], currentOp)) {
+                    program[programLength++] = operators[--operatorCount];
+                    depth--;
+                }
+                operators[operatorCount++] = currentOp;
+                expectOperand = true;
+            } else if (isVariable(token)) {
+                boolean negated = token.charAt(0) == '-';
+                String name = negated ? token.substring(1) : token;
+                int variable = variables.indexOf(name);
+                if (variable < 0) {
+                    variable = variables.size();
+                    variables.add(name);
+                }
+                if (slotCount == variableOperands.length) {
+                    variableOperands = Arrays.copyOf(variableOperands, Math.max(4, slotCount * 2));
+                    variableIndexes = Arrays.copyOf(variableIndexes, variableOperands.length);
+                }
+                variableOperands[slotCount] = operandCount;
+                variableIndexes[slotCount++] = negated ? ~variable : variable;
+                program[programLength++] = null;
+                operandCount++;
+                maxDepth = Math.max(maxDepth, ++depth);
+                expectOperand = false;
+            } else {
+                int operand;
+                try {
+                    operand = ExpressionException.parseInt(token);
+                } catch (NumberFormatException e) {
+                    // Keep what would have run before the evaluator hit this literal
+                    return new CompiledExpression(Arrays.copyOf(program, programLength),
+                            Arrays.copyOf(operands, operandCount), maxDepth,
+                            slots(variables, variableOperands, variableIndexes, slotCount), e);
+                }
+                program[programLength++] = null;
+                operands[operandCount++] = operand;
+                maxDepth = Math.max(maxDepth, ++depth);
+                expectOperand = false;
+            }
+        }
+
+        while (operatorCount > 0) {
+            program[programLength++] = operators[--operatorCount];
+        }
+
+        program = Arrays.copyOf(program, programLength);
+        operands = Arrays.copyOf(operands, operandCount);
+        VariableSlots slots = slots(variables, variableOperands, variableIndexes, slotCount);
+        if (constantFolding) {
+            return new ConstantFolder(program, operands, maxDepth, slots).fold(programShapes);
+        }
+        return new CompiledExpression(program, operands, maxDepth, slots, programShapes.shapeOf(program));
+    }
+
+    private static VariableSlots slots(List<String> variables, int[] operandIndexes, int[] variableIndexes, int count) {
+        if (count == 0) {
+            return VariableSlots.NONE;
+        }
+        return new VariableSlots(List.copyOf(variables), Arrays.copyOf(operandIndexes, count),
+                Arrays.copyOf(variableIndexes, count));
+    }
+
+    private boolean shouldPopOperator(Operation stackOp, Operation currentOp) {
+        return stackOp != null && (stackOp.getPrecedence() > currentOp.getPrecedence() ||
+               (stackOp.getPrecedence() == currentOp.getPrecedence() &&
+                currentOp.isLeftAssociative()));
+    }
+}
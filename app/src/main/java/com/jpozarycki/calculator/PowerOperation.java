@@ -0,0 +1,128 @@
+package com.jpozarycki.calculator;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+// A negative exponent truncates toward zero like integer division, so only 1 and -1 survive it
+class PowerOperation implements Operation {
+    // Exact results above this size are refused rather than computed for minutes
+    private static final long MAX_EXACT_BITS = 1 << 16;
+    private static final int MAX_DECIMAL_EXPONENT = 999_999_999;
+
+    @Override
+    public int execute(int left, int right) {
+        if (right < 0) {
+            return (int) reciprocal(left, (right & 1) == 1);
+        }
+        int result = 1;
+        int base = left;
+        for (int exponent = right; ; base *= base) {
+            if ((exponent & 1) == 1) {
+                result *= base;
+            }
+            exponent >>>= 1;
+            if (exponent == 0) {
+                return result;
+            }
+        }
+    }
+
+    @Override
+    public long execute(long left, long right) {
+        if (right < 0) {
+            return reciprocal(left, (right & 1) == 1);
+        }
+        try {
+            long result = 1;
+            long base = left;
+            for (long exponent = right; ; base = Math.multiplyExact(base, base)) {
+                if ((exponent & 1) == 1) {
+                    result = Math.multiplyExact(result, base);
+                }
+                exponent >>>= 1;
+                if (exponent == 0) {
+                    return result;
+                }
+            }
+        } catch (ArithmeticException e) {
+            throw ExpressionError.OVERFLOW.exception();
+        }
+    }
+
+    @Override
+    public BigInteger execute(BigInteger left, BigInteger right) {
+        boolean unitOrZero = left.abs().compareTo(BigInteger.ONE) <= 0;
+        if (right.signum() < 0) {
+            return unitOrZero ? BigInteger.valueOf(reciprocal(left.intValue(), right.testBit(0))) : BigInteger.ZERO;
+        }
+        if (unitOrZero) {
+            // 0, 1 and -1 stay small for any exponent, however large
+            return right.signum() == 0 || (left.signum() < 0 && !right.testBit(0)) ? BigInteger.ONE : left;
+        }
+        if (right.bitLength() >= Integer.SIZE || (long) left.bitLength() * right.intValue() > MAX_EXACT_BITS) {
+            throw ExpressionError.OVERFLOW.exception();
+        }
+        return left.pow(right.intValue());
+    }
+
+    @Override
+    public BigDecimal execute(BigDecimal left, BigDecimal right, MathContext mathContext) {
+        if (right.signum() != 0 && right.stripTrailingZeros().scale() > 0) {
+            throw ExpressionError.FRACTIONAL_EXPONENT.exception();
+        }
+        if (left.signum() == 0 && right.signum() < 0) {
+            throw ExpressionError.DIVISION_BY_ZERO.exception();
+        }
+        if (right.abs().compareTo(BigDecimal.valueOf(MAX_DECIMAL_EXPONENT)) > 0) {
+            throw ExpressionError.OVERFLOW.exception();
+        }
+        int exponent = right.intValueExact();
+        BigDecimal power;
+        if (mathContext.getPrecision() > 0) {
+            try {
+                power = left.pow(exponent, mathContext);
+            } catch (ArithmeticException e) {
+                // The JDK's "Overflow" and "Underflow" when the exponent leaves the int range
+                throw ExpressionError.OVERFLOW.exception();
+            }
+        } else {
+            // Unlimited precision keeps every digit, so bound the size and divide out negative powers
+            if ((long) left.unscaledValue().bitLength() * Math.abs(exponent) > MAX_EXACT_BITS) {
+                throw ExpressionError.OVERFLOW.exception();
+            }
+            power = left.pow(Math.abs(exponent));
+            power = exponent >= 0 ? power : BigDecimal.ONE.divide(power);
+        }
+        // 10 ^ 999999999 rounds to a single digit, but is a billion digits long once written out
+        if (Math.abs(power.scale()) > NumericExpressionEvaluator.MAX_SCALE) {
+            throw ExpressionError.OVERFLOW.exception();
+        }
+        return power;
+    }
+
+    @Override
+    public String getSymbol() {
+        return "^";
+    }
+
+    @Override
+    public int getPrecedence() {
+        return 3;
+    }
+
+    @Override
+    public boolean isLeftAssociative() {
+        return false;
+    }
+
+    private static long reciprocal(long base, boolean oddExponent) {
+        if (base == 0) {
+            throw ExpressionError.DIVISION_BY_ZERO.exception();
+        }
+        if (base == 1 || base == -1) {
+            return oddExponent ? base : 1;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,27 @@
+package com.jpozarycki.calculator;
+
+import java.util.List;
+
+// Immutable, so one instance can be evaluated concurrently with different values
+public final class PreparedExpression {
+    private final String expression;
+    private final CompiledExpression compiled;
+
+    PreparedExpression(String expression, CompiledExpression compiled) {
+        this.expression = expression;
+        this.compiled = compiled;
+    }
+
+    public String expression() {
+        return expression;
+    }
+
+    // In order of first appearance, which is the order positional values bind in
+    public List<String> variables() {
+        return compiled.variables().names();
+    }
+
+    CompiledExpression compiled() {
+        return compiled;
+    }
+}
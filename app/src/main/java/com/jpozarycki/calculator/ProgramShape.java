@@ -0,0 +1,41 @@
+package com.jpozarycki.calculator;
+
+// Counted per operator layout, so templated expressions that differ only in constants warm up together
+final class ProgramShape {
+    private final Operation[] program;
+    private final int promotionThreshold;
+    private final BytecodeProgramGenerator generator;
+    // Racy on purpose: a lost increment only delays promotion slightly
+    private int hits;
+    private volatile GeneratedProgram generated;
+    private boolean abandoned;
+
+    ProgramShape(Operation[] program, int promotionThreshold, BytecodeProgramGenerator generator) {
+        this.program = program;
+        this.promotionThreshold = promotionThreshold;
+        this.generator = generator;
+    }
+
+    GeneratedProgram generated() {
+        return generated;
+    }
+
+    void recordHit() {
+        if (++hits >= promotionThreshold) {
+            promote();
+        }
+    }
+
+    private synchronized void promote() {
+        if (generated != null || abandoned) {
+            return;
+        }
+        try {
+            generated = generator.generate(program);
+        } catch (RuntimeException | LinkageError e) {
+            // Keep interpreting; retrying on every hit would only repeat the failure
+            abandoned = true;
+            hits = Integer.MIN_VALUE;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.jpozarycki.calculator;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Shapes are weak, so a generated class is unloaded with the last cached expression of its shape
+@Component
+class ProgramShapes {
+    // Keeps generated methods under HotSpot's 8000-byte HugeMethodLimit, above which they are never JIT compiled
+    static final int MAX_GENERATED_INSTRUCTIONS = 512;
+
+    private final int promotionThreshold;
+    private final BytecodeProgramGenerator generator = new BytecodeProgramGenerator();
+    private final Cache<List<Operation>, ProgramShape> shapes = Caffeine.newBuilder().weakValues().build();
+
+    ProgramShapes(@Value("${calculator.bytecode.promotion-threshold:10000}") int promotionThreshold) {
+        this.promotionThreshold = promotionThreshold;
+    }
+
+    ProgramShape shapeOf(Operation[] program) {
+        if (promotionThreshold <= 0 || program.length > MAX_GENERATED_INSTRUCTIONS) {
+            return null;
+        }
+        return shapes.get(Arrays.asList(program), layout -> new ProgramShape(program, promotionThreshold, generator));
+    }
+
+    long size() {
+        shapes.cleanUp();
+        return shapes.estimatedSize();
+    }
+}
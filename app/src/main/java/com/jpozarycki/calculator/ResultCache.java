@@ -0,0 +1,112 @@
+package com.jpozarycki.calculator;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.OptionalInt;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+// Failures reach every waiting caller through the SingleFlight but are never cached, and keys
+// start with the operator table's fingerprint so nodes with different operators never share results
+@Slf4j
+class ResultCache {
+    enum Outcome {
+        // Found in either tier
+        HIT,
+        // Evaluated by this call
+        MISS,
+        // Waited for another call's evaluation
+        COALESCED
+    }
+
+    private final Cache<String, Integer> cache;
+    private final SingleFlight<String, Integer> inFlight;
+    private final int maxExpressionLength;
+    private final ResultStore sharedStore;
+    private final AtomicBoolean sharedStoreFailing = new AtomicBoolean();
+
+    ResultCache(long maximumSize, int maxExpressionLength, ResultStore sharedStore) {
+        this.cache = maximumSize > 0 ? Caffeine.newBuilder().maximumSize(maximumSize).build() : null;
+        // More distinct expressions in flight than the cache holds would be evicted before they are hit
+        this.inFlight = new SingleFlight<>((int) Math.min(Integer.MAX_VALUE, Math.max(1, maximumSize)));
+        this.maxExpressionLength = maxExpressionLength;
+        this.sharedStore = sharedStore;
+    }
+
+    boolean accepts(String expression) {
+        return cache != null && expression != null && expression.length() <= maxExpressionLength;
+    }
+
+    // The first caller of a missing key evaluates on its own thread; concurrent callers wait for it
+    int get(String expression, OperatorTable operatorTable, ToIntFunction<String> evaluation,
+            Consumer<Outcome> outcomes) {
+        String key = operatorTable.fingerprint() + ':' + CompiledExpressionCache.normalize(expression);
+        Integer cached = cache.getIfPresent(key);
+        if (cached != null) {
+            outcomes.accept(Outcome.HIT);
+            return cached;
+        }
+        // Only the caller that runs the flight gets into it; the others wait, even when it fails
+        boolean[] ran = new boolean[1];
+        try {
+            return inFlight.run(key, () -> {
+                ran[0] = true;
+                // Another call may have finished between the lookup and joining the flight
+                Integer loaded = cache.getIfPresent(key);
+                if (loaded != null) {
+                    outcomes.accept(Outcome.HIT);
+                    return loaded;
+                }
+                int result = load(key, expression, evaluation, outcomes);
+                cache.put(key, result);
+                return result;
+            });
+        } finally {
+            if (!ran[0]) {
+                outcomes.accept(Outcome.COALESCED);
+            }
+        }
+    }
+
+    // Only expressions that mention the symbol can evaluate differently once it changes
+    void invalidate(String symbol) {
+        if (cache != null) {
+            cache.asMap().keySet().removeIf(key -> key.indexOf(symbol, key.indexOf(':') + 1) >= 0);
+        }
+    }
+
+    private int load(String key, String expression, ToIntFunction<String> evaluation, Consumer<Outcome> outcomes) {
+        if (sharedStore == null) {
+            outcomes.accept(Outcome.MISS);
+            return evaluation.applyAsInt(expression);
+        }
+        try {
+            OptionalInt shared = sharedStore.get(key);
+            sharedStoreFailing.set(false);
+            if (shared.isPresent()) {
+                outcomes.accept(Outcome.HIT);
+                return shared.getAsInt();
+            }
+        } catch (RuntimeException e) {
+            reportFailure(e);
+        }
+        outcomes.accept(Outcome.MISS);
+        int result = evaluation.applyAsInt(expression);
+        try {
+            sharedStore.put(key, result);
+        } catch (RuntimeException e) {
+            reportFailure(e);
+        }
+        return result;
+    }
+
+    // Logged once per outage rather than on every calculation
+    private void reportFailure(RuntimeException e) {
+        if (!sharedStoreFailing.getAndSet(true)) {
+            log.warn("Shared result store failed, evaluating locally until it recovers", e);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.jpozarycki.calculator;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Configuration
+class ResultCacheConfiguration {
+
+    // A ResultStore bean, e.g. backed by a networked cache, takes precedence over the directory store
+    @Bean
+    ResultCache resultCache(ObjectProvider<ResultStore> resultStores,
+                            @Value("${calculator.result-cache.maximum-size:0}") long maximumSize,
+                            @Value("${calculator.result-cache.max-expression-length:1024}") int maxExpressionLength,
+                            @Value("${calculator.result-cache.shared.directory:}") String sharedDirectory,
+                            @Value("${calculator.result-cache.shared.time-to-live:1d}") Duration timeToLive) {
+        ResultStore sharedStore = resultStores.getIfAvailable(() -> sharedDirectory.isBlank()
+                ? null
+                : new DirectoryResultStore(Path.of(sharedDirectory), timeToLive));
+        return new ResultCache(maximumSize, maxExpressionLength, sharedStore);
+    }
+}
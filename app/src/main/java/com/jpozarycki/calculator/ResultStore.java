@@ -0,0 +1,11 @@
+package com.jpozarycki.calculator;
+
+import java.util.OptionalInt;
+
+// Called concurrently; a failure only costs a local evaluation, so implementations may throw
+// instead of retrying
+public interface ResultStore {
+    OptionalInt get(String key);
+
+    void put(String key, int result);
+}
@@ -0,0 +1,57 @@
+package com.jpozarycki.calculator;
+
+// Plain loops that C2 may still unroll or auto-vectorize
+class ScalarColumnKernels implements ColumnKernels {
+
+    @Override
+    public void negate(int[] source, int from, int[] target, int length) {
+        negate(source, from, target, 0, length);
+    }
+
+    @Override
+    public void apply(Operation operation, int[] left, int[] right, int length, long[] failed, int firstRow) {
+        apply(operation, left, right, 0, length, failed, firstRow);
+    }
+
+    static void negate(int[] source, int from, int[] target, int start, int end) {
+        for (int i = start; i < end; i++) {
+            target[i] = -source[from + i];
+        }
+    }
+
+    static void apply(Operation operation, int[] left, int[] right, int start, int end, long[] failed, int firstRow) {
+        Class<?> type = operation.getClass();
+        if (type == AdditionOperation.class) {
+            for (int i = start; i < end; i++) {
+                left[i] += right[i];
+            }
+        } else if (type == SubtractionOperation.class) {
+            for (int i = start; i < end; i++) {
+                left[i] -= right[i];
+            }
+        } else if (type == MultiplicationOperation.class) {
+            for (int i = start; i < end; i++) {
+                left[i] *= right[i];
+            }
+        } else if (type == DivisionOperation.class) {
+            for (int i = start; i < end; i++) {
+                int divisor = right[i];
+                if (divisor == 0) {
+                    left[i] = 0;
+                    ColumnKernels.mark(failed, firstRow + i);
+                } else {
+                    left[i] /= divisor;
+                }
+            }
+        } else {
+            for (int i = start; i < end; i++) {
+                try {
+                    left[i] = operation.execute(left[i], right[i]);
+                } catch (ArithmeticException e) {
+                    left[i] = 0;
+                    ColumnKernels.mark(failed, firstRow + i);
+                }
+            }
+        }
+    }
+}
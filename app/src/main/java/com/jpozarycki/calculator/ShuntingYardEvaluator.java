@@ -3,11 +3,12 @@ package com.jpozarycki.calculator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import java.util.List;
-import java.util.Stack;
 
 @Component
 @RequiredArgsConstructor
 class ShuntingYardEvaluator implements ExpressionEvaluator {
+    private static final ThreadLocal<Stacks> STACKS = ThreadLocal.withInitial(Stacks::new);
+
     private final OperationRegistryFacade operationRegistry;
 
     @Override
@@ -16,43 +17,95 @@ class ShuntingYardEvaluator implements ExpressionEvaluator {
     }
 
     private int evaluateWithShuntingYard(List<String> tokens) {
-        Stack<Integer> operands = new Stack<>();
-        Stack<Operation> operators = new Stack<>();
+        OperatorTable operatorTable = operationRegistry.operatorTable();
+        // Operands never outnumber the binary operators by more than one, but signs and
+        // parentheses can make every token an operator
+        Stacks stacks = STACKS.get();
+        int[] operands = stacks.operands(tokens.size() / 2 + 1);
+        int[] operators = stacks.operators(tokens.size());
+        int operandCount = 0;
+        int operatorCount = 0;
+        boolean expectOperand = true;
 
         for (String token : tokens) {
+            char first = token.charAt(0);
             if (isNumber(token)) {
-                operands.push(Integer.parseInt(token));
-            } else if (operationRegistry.isValidOperator(token)) {
-                Operation currentOp = operationRegistry.getOperation(token);
-                
-                while (!operators.isEmpty() && 
-                       shouldPopOperator(operators.peek(), currentOp)) {
-                    executeOperation(operands, operators.pop());
+                operands[operandCount++] = ExpressionException.parseInt(token);
+                expectOperand = false;
+            } else if (first == '(') {
+                operators[operatorCount++] = OperatorTable.LEFT_PARENTHESIS;
+            } else if (first == ')') {
+                while (operators[operatorCount - 1] != OperatorTable.LEFT_PARENTHESIS) {
+                    operandCount = executeOperation(operands, operandCount, operatorTable, operators[--operatorCount]);
+                }
+                operatorCount--;
+            } else if (expectOperand) {
+                // A sign where an operand belongs; unary plus changes nothing
+                if (first == '-') {
+                    operators[operatorCount++] = OperatorTable.NEGATE;
                 }
-                operators.push(currentOp);
+            } else {
+                int operator = operatorTable.indexOf(token);
+                while (operatorCount > 0 &&
+                       operatorTable.shouldPop(operators[operatorCount - 1], operator)) {
+                    operandCount = executeOperation(operands, operandCount, operatorTable, operators[--operatorCount]);
+                }
+                operators[operatorCount++] = operator;
+                expectOperand = true;
             }
         }
 
-        while (!operators.isEmpty()) {
-            executeOperation(operands, operators.pop());
+        while (operatorCount > 0) {
+            operandCount = executeOperation(operands, operandCount, operatorTable, operators[--operatorCount]);
         }
 
-        return operands.pop();
+        return operands[operandCount - 1];
     }
 
-    private boolean shouldPopOperator(Operation stackOp, Operation currentOp) {
-        return stackOp.getPrecedence() > currentOp.getPrecedence() ||
-               (stackOp.getPrecedence() == currentOp.getPrecedence() && 
-                currentOp.isLeftAssociative());
+    private int executeOperation(int[] operands, int operandCount, OperatorTable operatorTable, int operator) {
+        if (operator == OperatorTable.NEGATE) {
+            operands[operandCount - 1] = -operands[operandCount - 1];
+            return operandCount;
+        }
+        int right = operands[operandCount - 1];
+        int left = operands[operandCount - 2];
+        operands[operandCount - 2] = operatorTable.operation(operator).execute(left, right);
+        return operandCount - 1;
     }
 
-    private void executeOperation(Stack<Integer> operands, Operation operation) {
-        int right = operands.pop();
-        int left = operands.pop();
-        operands.push(operation.execute(left, right));
+    // Tokens are validated by now, so a leading digit or a minus followed by more characters is a number
+    private boolean isNumber(String token) {
+        char first = token.charAt(0);
+        return (first >= '0' && first <= '9') || (first == '-' && token.length() > 1);
     }
 
-    private boolean isNumber(String token) {
-        return token.matches("-?\\d+");
+    private static final class Stacks {
+        // Larger stacks are allocated per call instead of being pinned to the thread
+        private static final int MAX_RETAINED_CAPACITY = 1 << 16;
+
+        private int[] operands = new int[16];
+        private int[] operators = new int[16];
+
+        int[] operands(int capacity) {
+            if (capacity <= operands.length) {
+                return operands;
+            }
+            int[] stack = new int[capacity];
+            if (capacity <= MAX_RETAINED_CAPACITY) {
+                operands = stack;
+            }
+            return stack;
+        }
+
+        int[] operators(int capacity) {
+            if (capacity <= operators.length) {
+                return operators;
+            }
+            int[] stack = new int[capacity];
+            if (capacity <= MAX_RETAINED_CAPACITY) {
+                operators = stack;
+            }
+            return stack;
+        }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,75 @@
+package com.jpozarycki.calculator;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Keys are forgotten as soon as their call completes, so nothing is cached, and calls beyond
+// maxInFlight run on their own rather than waiting for room
+final class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+    private final int maxInFlight;
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder overflows = new LongAdder();
+
+    SingleFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    V run(K key, Supplier<V> call) {
+        CompletableFuture<V> running = calls.get(key);
+        if (running == null) {
+            if (calls.mappingCount() >= maxInFlight) {
+                overflows.increment();
+                return call.get();
+            }
+            CompletableFuture<V> pending = new CompletableFuture<>();
+            running = calls.putIfAbsent(key, pending);
+            if (running == null) {
+                try {
+                    V result = call.get();
+                    pending.complete(result);
+                    return result;
+                } catch (RuntimeException | Error e) {
+                    pending.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    calls.remove(key, pending);
+                }
+            }
+        }
+        coalesced.increment();
+        return join(running);
+    }
+
+    // Callers that waited for another call's result
+    long coalesced() {
+        return coalesced.sum();
+    }
+
+    // Calls that ran on their own because the in-flight table was full
+    long overflows() {
+        return overflows.sum();
+    }
+
+    int inFlight() {
+        return calls.size();
+    }
+
+    // Rethrows the exception of the shared call itself rather than a CompletionException around it
+    static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
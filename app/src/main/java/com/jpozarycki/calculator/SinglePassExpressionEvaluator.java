@@ -0,0 +1,300 @@
+package com.jpozarycki.calculator;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+// Same results and messages as the tokenizer/validator/evaluator pipeline, in one scan that does not
+// allocate on the success path
+@Component
+@RequiredArgsConstructor
+class SinglePassExpressionEvaluator {
+    private static final ThreadLocal<Scan> SCANS = ThreadLocal.withInitial(Scan::new);
+
+    private final OperationRegistryFacade operationRegistry;
+
+    int evaluate(CharSequence expression) {
+        int start = 0;
+        int end = expression.length();
+        while (start < end && expression.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && expression.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            throw ExpressionError.EMPTY_EXPRESSION.exception();
+        }
+        return SCANS.get().evaluate(operationRegistry, expression, start, end);
+    }
+
+    private static final class Scan {
+        private static final int NUMBER = 0;
+        private static final int OPERATOR = 1;
+        private static final int OPEN = 2;
+        private static final int CLOSE = 3;
+        private static final int OTHER = 4;
+        private static final long MAX_MAGNITUDE = -(long) Integer.MIN_VALUE;
+
+        private OperatorTable operatorTable;
+
+        private int[] operands = new int[16];
+        private int operandCount;
+        private int[] operators = new int[16];
+        private int operatorCount;
+
+        private int tokenCount;
+        private boolean validStart;
+        private int lastKind;
+        private boolean expectOperand;
+        private int depth;
+        private ExpressionError structureError;
+        private int structurePosition;
+        private RuntimeException evaluationError;
+
+        private int tokenStart;
+        private boolean negative;
+        private boolean hasDigits;
+        private boolean nonAsciiDigits;
+        private long magnitude;
+
+        int evaluate(OperationRegistryFacade registry, CharSequence expression, int start, int end) {
+            reset(registry.operatorTable());
+            try {
+                for (int i = start; i < end; i++) {
+                    char ch = expression.charAt(i);
+
+                    if (ch == ' ') {
+                        endToken(expression, i);
+                        continue;
+                    }
+
+                    int operator = operatorTable.indexOf(ch);
+                    if (ch == '(' || ch == ')') {
+                        endToken(expression, i);
+                        parenthesisToken(ch == '(');
+                    } else if (operator >= 0 && ch != '-') {
+                        endToken(expression, i);
+                        operatorToken(ch, operator);
+                    } else if (ch == '-') {
+                        // Same negative number vs minus operator rule as BasicExpressionTokenizer
+                        if (tokenStart >= 0) {
+                            endToken(expression, i);
+                            operatorToken(ch, operator);
+                        } else if (tokenCount == 0 || lastKind == OPERATOR || lastKind == OPEN) {
+                            startToken(i);
+                            negative = true;
+                        } else {
+                            operatorToken(ch, operator);
+                        }
+                    } else if (Character.isDigit(ch)) {
+                        if (tokenStart < 0) {
+                            startToken(i);
+                        }
+                        appendDigit(ch);
+                    } else {
+                        throw ExpressionError.INVALID_CHARACTER.exception();
+                    }
+                }
+                endToken(expression, end);
+
+                if (!validStart) {
+                    throw ExpressionError.MISSING_LEADING_NUMBER.exception();
+                }
+                if (lastKind != NUMBER && lastKind != CLOSE) {
+                    throw ExpressionError.MISSING_TRAILING_NUMBER.exception();
+                }
+                if (structureError != null) {
+                    throw structureError.exception(structurePosition);
+                }
+                if (depth > 0) {
+                    throw ExpressionError.MISSING_CLOSING_PARENTHESIS.exception();
+                }
+                if (evaluationError != null) {
+                    throw evaluationError;
+                }
+
+                while (operatorCount > 0) {
+                    apply(operators[--operatorCount]);
+                }
+                return operands[--operandCount];
+            } finally {
+                this.operatorTable = null;
+                this.evaluationError = null;
+            }
+        }
+
+        private void reset(OperatorTable operatorTable) {
+            this.operatorTable = operatorTable;
+            operandCount = 0;
+            operatorCount = 0;
+            tokenCount = 0;
+            validStart = false;
+            lastKind = OTHER;
+            expectOperand = true;
+            depth = 0;
+            structureError = null;
+            tokenStart = -1;
+        }
+
+        private void startToken(int position) {
+            tokenStart = position;
+            negative = false;
+            hasDigits = false;
+            nonAsciiDigits = false;
+            magnitude = 0;
+        }
+
+        private void appendDigit(char ch) {
+            hasDigits = true;
+            if (ch < '0' || ch > '9') {
+                // Character.isDigit accepts it, but the number pattern only matches ASCII digits
+                nonAsciiDigits = true;
+            } else if (magnitude <= MAX_MAGNITUDE) {
+                magnitude = magnitude * 10 + (ch - '0');
+            }
+        }
+
+        private void endToken(CharSequence expression, int end) {
+            if (tokenStart < 0) {
+                return;
+            }
+            int start = tokenStart;
+            tokenStart = -1;
+
+            if (!hasDigits) {
+                operatorToken('-', operatorTable.indexOf('-'));
+            } else if (nonAsciiDigits) {
+                token(OTHER, false);
+            } else {
+                token(NUMBER, false);
+                if (isEvaluating()) {
+                    pushNumber(expression, start, end);
+                }
+            }
+        }
+
+        private void operatorToken(char symbol, int operator) {
+            boolean prefix = expectOperand;
+            token(operator >= 0 ? OPERATOR : OTHER, symbol == '+' || symbol == '-');
+            if (operator >= 0 && isEvaluating()) {
+                if (!prefix) {
+                    pushOperator(operator);
+                } else if (symbol == '-') {
+                    pushPrefix(OperatorTable.NEGATE);
+                }
+            }
+        }
+
+        private void parenthesisToken(boolean open) {
+            token(open ? OPEN : CLOSE, false);
+            if (!isEvaluating()) {
+                return;
+            }
+            if (open) {
+                pushPrefix(OperatorTable.LEFT_PARENTHESIS);
+                return;
+            }
+            while (operators[operatorCount - 1] != OperatorTable.LEFT_PARENTHESIS) {
+                if (!tryApply(operators[--operatorCount])) {
+                    return;
+                }
+            }
+            operatorCount--;
+        }
+
+        // Mirrors BasicExpressionValidator, remembering the first error instead of throwing it
+        private void token(int kind, boolean sign) {
+            if (tokenCount == 0) {
+                validStart = kind == NUMBER || kind == OPEN || (kind == OPERATOR && sign);
+            }
+            lastKind = kind;
+            tokenCount++;
+            if (structureError != null) {
+                return;
+            }
+            if (expectOperand) {
+                if (kind == NUMBER) {
+                    expectOperand = false;
+                } else if (kind == OPEN) {
+                    depth++;
+                } else if (kind != OPERATOR || !sign) {
+                    structure(ExpressionError.EXPECTED_NUMBER);
+                }
+            } else if (kind == CLOSE) {
+                if (depth == 0) {
+                    structure(ExpressionError.UNEXPECTED_CLOSING_PARENTHESIS);
+                } else {
+                    depth--;
+                }
+            } else if (kind == OPERATOR) {
+                expectOperand = true;
+            } else {
+                structure(ExpressionError.EXPECTED_OPERATOR);
+            }
+        }
+
+        private void structure(ExpressionError error) {
+            structureError = error;
+            structurePosition = tokenCount - 1;
+        }
+
+        private boolean isEvaluating() {
+            return structureError == null && evaluationError == null;
+        }
+
+        private void pushNumber(CharSequence expression, int start, int end) {
+            if (negative ? magnitude > MAX_MAGNITUDE : magnitude > Integer.MAX_VALUE) {
+                try {
+                    // Out of int range: fail with the pipeline's exact exception
+                    ExpressionException.parseInt(expression.subSequence(start, end).toString());
+                } catch (NumberFormatException e) {
+                    evaluationError = e;
+                    return;
+                }
+            }
+            if (operandCount == operands.length) {
+                operands = Arrays.copyOf(operands, operandCount * 2);
+            }
+            operands[operandCount++] = (int) (negative ? -magnitude : magnitude);
+        }
+
+        private void pushOperator(int operator) {
+            while (operatorCount > 0 && operatorTable.shouldPop(operators[operatorCount - 1], operator)) {
+                if (!tryApply(operators[--operatorCount])) {
+                    return;
+                }
+            }
+            pushPrefix(operator);
+        }
+
+        private void pushPrefix(int operator) {
+            if (operatorCount == operators.length) {
+                operators = Arrays.copyOf(operators, operatorCount * 2);
+            }
+            operators[operatorCount++] = operator;
+        }
+
+        private boolean tryApply(int operator) {
+            try {
+                apply(operator);
+                return true;
+            } catch (RuntimeException e) {
+                // Deferred: a validation error later in the expression takes precedence
+                evaluationError = e;
+                return false;
+            }
+        }
+
+        private void apply(int operator) {
+            if (operator == OperatorTable.NEGATE) {
+                operands[operandCount - 1] = -operands[operandCount - 1];
+                return;
+            }
+            int right = operands[--operandCount];
+            int left = operands[--operandCount];
+            operands[operandCount++] = operatorTable.operation(operator).execute(left, right);
+        }
+    }
+}
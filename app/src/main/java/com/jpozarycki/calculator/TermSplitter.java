@@ -0,0 +1,116 @@
+package com.jpozarycki.calculator;
+
+import com.jpozarycki.calculator.TermTree.Term;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Each term but the first starts at the operator in front of it, so the terms concatenate back to
+// the exact text
+@Component
+class TermSplitter {
+    private final ExpressionTokenizer tokenizer;
+    private final ExpressionValidator validator;
+    private final ShuntingYardEvaluator evaluator;
+    private final OperationRegistryFacade operationRegistry;
+
+    TermSplitter(ExpressionTokenizer tokenizer,
+                 ExpressionValidator validator,
+                 ShuntingYardEvaluator evaluator,
+                 OperationRegistryFacade operationRegistry) {
+        this.tokenizer = tokenizer;
+        this.validator = validator;
+        this.evaluator = evaluator;
+        this.operationRegistry = operationRegistry;
+    }
+
+    // Summing terms is only sound while + and - are the built-in wrapping operations and bind loosest
+    static boolean isSplittable(OperatorTable operatorTable) {
+        Operation addition = operatorTable.find('+');
+        Operation subtraction = operatorTable.find('-');
+        if (addition == null || addition.getClass() != AdditionOperation.class
+                || subtraction == null || subtraction.getClass() != SubtractionOperation.class) {
+            return false;
+        }
+        int additivePrecedence = Math.max(addition.getPrecedence(), subtraction.getPrecedence());
+        for (int index = 0; index < operatorTable.size(); index++) {
+            Operation operation = operatorTable.operation(index);
+            if (operation != addition && operation != subtraction && operation.getPrecedence() <= additivePrecedence) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Null unless the region stands on its own, so neighbouring terms keep their meaning
+    List<Term> split(String region, boolean first, OperatorTable operatorTable) {
+        int start = 0;
+        if (!first) {
+            if (region.isEmpty() || (region.charAt(0) != '+' && region.charAt(0) != '-')) {
+                return null;
+            }
+            start = 1;
+        }
+        // The tokenizer trims control characters off the ends, which is only right for the whole text
+        if (region.chars().anyMatch(ch -> ch < ' ')) {
+            return null;
+        }
+        List<String> tokens;
+        try {
+            tokens = tokenizer.tokenize(region.substring(start));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        List<Term> terms = new ArrayList<>();
+        int termStart = 0;
+        int termFrom = 0;
+        boolean negative = !first && region.charAt(0) == '-';
+        int position = start;
+        int depth = 0;
+        boolean expectOperand = true;
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            while (region.charAt(position) == ' ') {
+                position++;
+            }
+            int tokenStart = position;
+            position += token.length();
+
+            if (token.equals("(")) {
+                depth++;
+            } else if (token.equals(")")) {
+                if (--depth < 0) {
+                    return null;
+                }
+            } else if (operatorTable.indexOf(token) < 0) {
+                expectOperand = false;
+            } else if (!expectOperand) {
+                expectOperand = true;
+                if (depth == 0 && (token.equals("+") || token.equals("-"))) {
+                    terms.add(term(region.substring(termStart, tokenStart), tokens.subList(termFrom, i), negative));
+                    termStart = tokenStart;
+                    termFrom = i + 1;
+                    negative = token.equals("-");
+                }
+            }
+        }
+        if (depth != 0 || expectOperand) {
+            return null;
+        }
+        terms.add(term(region.substring(termStart), tokens.subList(termFrom, tokens.size()), negative));
+        return terms;
+    }
+
+    // A term that fails is kept without a value; the session then reports the full calculation's error
+    private Term term(String text, List<String> tokens, boolean negative) {
+        try {
+            validator.validate(tokens, operationRegistry);
+            int value = evaluator.evaluate(tokens);
+            return new Term(text, negative ? -value : value, true);
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            return Term.unevaluated(text);
+        }
+    }
+}
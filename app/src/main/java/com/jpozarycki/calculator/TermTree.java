@@ -0,0 +1,180 @@
+package com.jpozarycki.calculator;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Treap by position whose nodes cache subtree length, wrapping sum and unevaluated count, so lookup
+// by offset, replacing a run of terms and the total are all logarithmic
+final class TermTree {
+    private Node root;
+
+    TermTree(List<Term> terms) {
+        root = build(terms);
+    }
+
+    int count() {
+        return count(root);
+    }
+
+    int length() {
+        return root == null ? 0 : root.length;
+    }
+
+    int sum() {
+        return root == null ? 0 : root.sum;
+    }
+
+    boolean isComplete() {
+        return root == null || root.unevaluated == 0;
+    }
+
+    // Index of the term holding the character at offset, which must be below length()
+    int indexAt(int offset) {
+        Node node = root;
+        int index = 0;
+        while (true) {
+            int leftLength = node.left == null ? 0 : node.left.length;
+            if (offset < leftLength) {
+                node = node.left;
+            } else if (offset < leftLength + node.term.text().length()) {
+                return index + count(node.left);
+            } else {
+                offset -= leftLength + node.term.text().length();
+                index += count(node.left) + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    int startOf(int index) {
+        Node node = root;
+        int start = 0;
+        while (node != null) {
+            int leftCount = count(node.left);
+            if (index <= leftCount) {
+                node = node.left;
+            } else {
+                start += (node.left == null ? 0 : node.left.length) + node.term.text().length();
+                index -= leftCount + 1;
+                node = node.right;
+            }
+        }
+        return start;
+    }
+
+    String text() {
+        StringBuilder text = new StringBuilder(length());
+        appendText(root, text);
+        return text.toString();
+    }
+
+    String text(int from, int to) {
+        Node[] left = split(root, from);
+        Node[] middle = split(left[1], to - from);
+        StringBuilder text = new StringBuilder(middle[0] == null ? 0 : middle[0].length);
+        appendText(middle[0], text);
+        root = merge(left[0], merge(middle[0], middle[1]));
+        return text.toString();
+    }
+
+    void replace(int from, int to, List<Term> terms) {
+        Node[] left = split(root, from);
+        Node[] middle = split(left[1], to - from);
+        root = merge(left[0], merge(build(terms), middle[1]));
+    }
+
+    private static Node build(List<Term> terms) {
+        Node node = null;
+        for (Term term : terms) {
+            node = merge(node, new Node(term));
+        }
+        return node;
+    }
+
+    // Splits into the first count terms and the rest
+    private static Node[] split(Node node, int count) {
+        if (node == null) {
+            return new Node[2];
+        }
+        int leftCount = count(node.left);
+        if (count <= leftCount) {
+            Node[] parts = split(node.left, count);
+            node.left = parts[1];
+            parts[1] = node.update();
+            return parts;
+        }
+        Node[] parts = split(node.right, count - leftCount - 1);
+        node.right = parts[0];
+        parts[0] = node.update();
+        return parts;
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return left.update();
+        }
+        right.left = merge(left, right.left);
+        return right.update();
+    }
+
+    private static void appendText(Node node, StringBuilder text) {
+        if (node != null) {
+            appendText(node.left, text);
+            text.append(node.term.text());
+            appendText(node.right, text);
+        }
+    }
+
+    private static int count(Node node) {
+        return node == null ? 0 : node.count;
+    }
+
+    // The value has the sign of the operator in front applied
+    record Term(String text, int value, boolean evaluated) {
+        static Term unevaluated(String text) {
+            return new Term(text, 0, false);
+        }
+    }
+
+    private static final class Node {
+        private final Term term;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private Node left;
+        private Node right;
+        private int count;
+        private int length;
+        private int sum;
+        private int unevaluated;
+
+        Node(Term term) {
+            this.term = term;
+            update();
+        }
+
+        Node update() {
+            count = 1;
+            length = term.text().length();
+            sum = term.value();
+            unevaluated = term.evaluated() ? 0 : 1;
+            add(left);
+            add(right);
+            return this;
+        }
+
+        private void add(Node child) {
+            if (child != null) {
+                count += child.count;
+                length += child.length;
+                sum += child.sum;
+                unevaluated += child.unevaluated;
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.jpozarycki.calculator;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+// A slot stores ~index when the reference was negated (-qty)
+final class VariableSlots {
+    static final int CONSTANT = Integer.MIN_VALUE;
+    static final VariableSlots NONE = new VariableSlots(List.of(), new int[0], new int[0]);
+
+    private final List<String> names;
+    private final int[] operandIndexes;
+    private final int[] variableIndexes;
+
+    VariableSlots(List<String> names, int[] operandIndexes, int[] variableIndexes) {
+        this.names = names;
+        this.operandIndexes = operandIndexes;
+        this.variableIndexes = variableIndexes;
+    }
+
+    List<String> names() {
+        return names;
+    }
+
+    int[] bind(int[] constants, int[] values) {
+        if (values.length != names.size()) {
+            throw ExpressionError.WRONG_VALUE_COUNT.exception(names.size());
+        }
+        int[] operands = constants.clone();
+        for (int slot = 0; slot < operandIndexes.length; slot++) {
+            int variable = variableIndexes[slot];
+            operands[operandIndexes[slot]] = variable >= 0 ? values[variable] : -values[~variable];
+        }
+        return operands;
+    }
+
+    // The variable at each operand as stored in the slots, or CONSTANT
+    int[] variablesByOperand(int operandCount) {
+        int[] variables = new int[operandCount];
+        Arrays.fill(variables, CONSTANT);
+        for (int slot = 0; slot < operandIndexes.length; slot++) {
+            variables[operandIndexes[slot]] = variableIndexes[slot];
+        }
+        return variables;
+    }
+
+    int[] valuesOf(Map<String, Integer> bindings) {
+        int[] values = new int[names.size()];
+        for (int i = 0; i < values.length; i++) {
+            Integer value = bindings.get(names.get(i));
+            if (value == null) {
+                throw ExpressionError.MISSING_VARIABLE.exception(names.get(i));
+            }
+            values[i] = value;
+        }
+        if (bindings.size() > values.length) {
+            for (String name : bindings.keySet()) {
+                if (!names.contains(name)) {
+                    throw ExpressionError.UNKNOWN_VARIABLE.exception(name);
+                }
+            }
+        }
+        return values;
+    }
+}
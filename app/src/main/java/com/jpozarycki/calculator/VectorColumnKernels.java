@@ -0,0 +1,44 @@
+package com.jpozarycki.calculator;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// Only loaded when jdk.incubator.vector is present; tails, division and other operations run scalar
+class VectorColumnKernels implements ColumnKernels {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    public void negate(int[] source, int from, int[] target, int length) {
+        int bound = SPECIES.loopBound(length);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            IntVector.fromArray(SPECIES, source, from + i).neg().intoArray(target, i);
+        }
+        ScalarColumnKernels.negate(source, from, target, bound, length);
+    }
+
+    @Override
+    public void apply(Operation operation, int[] left, int[] right, int length, long[] failed, int firstRow) {
+        Class<?> type = operation.getClass();
+        int bound = SPECIES.loopBound(length);
+        if (type == AdditionOperation.class) {
+            lanewise(VectorOperators.ADD, left, right, bound);
+        } else if (type == SubtractionOperation.class) {
+            lanewise(VectorOperators.SUB, left, right, bound);
+        } else if (type == MultiplicationOperation.class) {
+            lanewise(VectorOperators.MUL, left, right, bound);
+        } else {
+            // Integer division has no vector instruction on x86 and a masked DIV measured slower than the scalar loop
+            bound = 0;
+        }
+        ScalarColumnKernels.apply(operation, left, right, bound, length, failed, firstRow);
+    }
+
+    private static void lanewise(VectorOperators.Binary operator, int[] left, int[] right, int bound) {
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            IntVector.fromArray(SPECIES, left, i)
+                    .lanewise(operator, IntVector.fromArray(SPECIES, right, i))
+                    .intoArray(left, i);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.jpozarycki.calculator.dto;
+
+import com.jpozarycki.calculator.NumericMode;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public record BatchCalculationRequest(@NotEmpty List<String> expressions, NumericMode mode) {
+    public BatchCalculationRequest {
+        if (mode == null) {
+            mode = NumericMode.INT;
+        }
+    }
+
+    public BatchCalculationRequest(List<String> expressions) {
+        this(expressions, NumericMode.INT);
+    }
+}
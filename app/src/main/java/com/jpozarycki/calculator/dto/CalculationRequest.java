@@ -0,0 +1,16 @@
+package com.jpozarycki.calculator.dto;
+
+import com.jpozarycki.calculator.NumericMode;
+import jakarta.validation.constraints.NotBlank;
+
+public record CalculationRequest(@NotBlank String expression, NumericMode mode) {
+    public CalculationRequest {
+        if (mode == null) {
+            mode = NumericMode.INT;
+        }
+    }
+
+    public CalculationRequest(String expression) {
+        this(expression, NumericMode.INT);
+    }
+}
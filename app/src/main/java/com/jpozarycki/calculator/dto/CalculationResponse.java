@@ -0,0 +1,13 @@
+package com.jpozarycki.calculator.dto;
+
+import com.jpozarycki.calculator.CalculationResult;
+
+public record CalculationResponse(Number result, String error) {
+
+    public static CalculationResponse from(CalculationResult result) {
+        return switch (result) {
+            case CalculationResult.Success success -> new CalculationResponse(success.value(), null);
+            case CalculationResult.Failure failure -> new CalculationResponse(null, failure.message());
+        };
+    }
+}
@@ -0,0 +1,10 @@
+package com.jpozarycki.calculator.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+import java.util.Map;
+
+public record PreparedCalculationRequest(@NotBlank String expression, @NotEmpty List<Map<String, Integer>> bindings) {
+}
@@ -0,0 +1,11 @@
+package com.jpozarycki.calculator.dto;
+
+import jakarta.validation.constraints.PositiveOrZero;
+
+public record SessionEditRequest(@PositiveOrZero int offset, @PositiveOrZero int deleted, String inserted) {
+    public SessionEditRequest {
+        if (inserted == null) {
+            inserted = "";
+        }
+    }
+}
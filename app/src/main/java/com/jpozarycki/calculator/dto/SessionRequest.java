@@ -0,0 +1,7 @@
+package com.jpozarycki.calculator.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+// The expression may be empty or invalid: sessions start from whatever is in the editor
+public record SessionRequest(@NotNull String expression) {
+}
@@ -0,0 +1,4 @@
+package com.jpozarycki.calculator.dto;
+
+public record SessionResponse(String id, Integer result, String error) {
+}
@@ -0,0 +1,15 @@
+package com.jpozarycki.calculator.util;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.regex.Pattern;
+
+@UtilityClass
+public class VariableUtil {
+    // A leading minus negates the bound value, like it negates a literal
+    private static final Pattern VARIABLE_PATTERN = Pattern.compile("-?[A-Za-z_][A-Za-z0-9_]*");
+
+    public static boolean isVariable(String token) {
+        return VARIABLE_PATTERN.matcher(token).matches();
+    }
+}
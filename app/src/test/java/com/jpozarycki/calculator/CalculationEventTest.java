@@ -0,0 +1,92 @@
+package com.jpozarycki.calculator;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalculationEventTest {
+    private static final String EVENT = "com.jpozarycki.calculator.Calculation";
+
+    private final OperationRegistry operationRegistry = new OperationRegistry();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldNotCreateEventsWithoutRecording() {
+        assertNull(CalculationEvent.begin("2 + 3", NumericMode.INT, EvaluationMode.PIPELINE));
+    }
+
+    @Test
+    void shouldRecordStagesAndCacheOutcomes() throws IOException {
+        CalculatorService calculatorService = calculatorService(new CompiledExpressionCache(100, 100),
+                new ResultCache(100, 100, null));
+
+        List<RecordedEvent> events = record(() -> {
+            calculatorService.calculate("2 + 3 * 4");
+            calculatorService.calculate("2 + 3 * 4");
+            calculatorService.calculate(" 2 +  3 * 4");
+        });
+
+        assertEquals(3, events.size());
+        RecordedEvent missed = events.get(0);
+        assertEquals(9, missed.getInt("expressionLength"));
+        assertEquals("INT", missed.getString("numericMode"));
+        assertEquals("PIPELINE", missed.getString("evaluationMode"));
+        assertEquals(5, missed.getInt("tokens"));
+        assertEquals("miss", missed.getString("resultCache"));
+        assertEquals("miss", missed.getString("compiledCache"));
+        assertFalse(missed.getDuration("tokenizeTime").isNegative());
+        assertNull(missed.getString("error"));
+        RecordedEvent hit = events.get(2);
+        assertEquals(11, hit.getInt("expressionLength"));
+        assertEquals("hit", hit.getString("resultCache"));
+        assertEquals("bypass", hit.getString("compiledCache"));
+    }
+
+    @Test
+    void shouldRecordErrorType() throws IOException {
+        CalculatorService calculatorService = calculatorService(new CompiledExpressionCache(0, 0),
+                new ResultCache(0, 0, null));
+
+        List<RecordedEvent> events = record(() -> {
+            assertThrows(ArithmeticException.class, () -> calculatorService.calculate("1 / 0"));
+            assertThrows(IllegalArgumentException.class, () -> calculatorService.calculate("1 +", NumericMode.DECIMAL));
+        });
+
+        assertEquals(2, events.size());
+        assertEquals("DIVISION_BY_ZERO", events.get(0).getString("error"));
+        assertEquals("bypass", events.get(0).getString("resultCache"));
+        assertEquals("DECIMAL", events.get(1).getString("numericMode"));
+        assertNotNull(events.get(1).getString("error"));
+    }
+
+    private List<RecordedEvent> record(Runnable calculations) throws IOException {
+        Path file = directory.resolve("calculations.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(EVENT).withoutThreshold();
+            recording.start();
+            calculations.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals(EVENT))
+                .toList();
+    }
+
+    private CalculatorService calculatorService(CompiledExpressionCache expressionCache, ResultCache resultCache) {
+        return CalculatorServices.pipeline(operationRegistry)
+                .expressionCache(expressionCache)
+                .resultCache(resultCache)
+                .build();
+    }
+}
@@ -0,0 +1,93 @@
+package com.jpozarycki.calculator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalculationResultTest {
+    private final OperationRegistry operationRegistry = new OperationRegistry();
+
+    @ParameterizedTest
+    @EnumSource(EvaluationMode.class)
+    void shouldReportTheErrorOfEveryRejectedExpression(EvaluationMode mode) {
+        CalculatorService calculatorService = calculatorService(mode);
+
+        assertFailure(calculatorService, "  ", ExpressionError.EMPTY_EXPRESSION, -1);
+        assertFailure(calculatorService, "2 & 3", ExpressionError.INVALID_CHARACTER, -1);
+        assertFailure(calculatorService, "* 3", ExpressionError.MISSING_LEADING_NUMBER, -1);
+        assertFailure(calculatorService, "2 + * 3", ExpressionError.EXPECTED_NUMBER, 2);
+        assertFailure(calculatorService, "2 ( 3", ExpressionError.EXPECTED_OPERATOR, 1);
+        assertFailure(calculatorService, "(1 + 2", ExpressionError.MISSING_CLOSING_PARENTHESIS, -1);
+        assertFailure(calculatorService, "99999999999 + 1", ExpressionError.NUMBER_OUT_OF_RANGE, -1);
+        assertFailure(calculatorService, "1 + 2 / 0", ExpressionError.DIVISION_BY_ZERO, -1);
+    }
+
+    @Test
+    void shouldReturnValuesOfEveryNumericMode() {
+        CalculatorService calculatorService = calculatorService(EvaluationMode.PIPELINE);
+
+        assertEquals(new CalculationResult.Success(14), calculatorService.tryCalculate("2 + 3 * 4", NumericMode.INT));
+        assertEquals(new CalculationResult.Success(2147483648L),
+                calculatorService.tryCalculate("2147483647 + 1", NumericMode.LONG));
+        assertFailure(calculatorService, "9223372036854775807 + 1", NumericMode.LONG, ExpressionError.OVERFLOW, -1);
+    }
+
+    @ParameterizedTest
+    @EnumSource(EvaluationMode.class)
+    void shouldThrowExpressionErrorsWithoutStackTrace(EvaluationMode mode) {
+        CalculatorService calculatorService = calculatorService(mode);
+
+        for (String expression : new String[]{"2 + * 3", "2 + * 3", "2147483648", "2147483648", "1 / 0"}) {
+            RuntimeException e = assertThrows(RuntimeException.class, () -> calculatorService.calculate(expression));
+            assertEquals(0, e.getStackTrace().length, expression);
+        }
+    }
+
+    @Test
+    void shouldPassOnErrorsOfOperatorPlugins() {
+        operationRegistry.register(new Operation() {
+            @Override
+            public int execute(int left, int right) {
+                throw new ArithmeticException("Modulus of zero");
+            }
+
+            @Override
+            public String getSymbol() {
+                return "%";
+            }
+
+            @Override
+            public int getPrecedence() {
+                return 2;
+            }
+
+            @Override
+            public boolean isLeftAssociative() {
+                return true;
+            }
+        });
+
+        assertFailure(calculatorService(EvaluationMode.PIPELINE), "5 % 0", ExpressionError.INVALID_EXPRESSION, -1);
+    }
+
+    private static void assertFailure(CalculatorService calculatorService, String expression, ExpressionError error, int position) {
+        assertFailure(calculatorService, expression, NumericMode.INT, error, position);
+    }
+
+    // The failure carries the same message calculate throws
+    private static void assertFailure(CalculatorService calculatorService, String expression, NumericMode mode,
+                                      ExpressionError error, int position) {
+        RuntimeException thrown = assertThrows(RuntimeException.class, () -> calculatorService.calculate(expression, mode));
+        assertEquals(new CalculationResult.Failure(error, position, thrown.getMessage()),
+                calculatorService.tryCalculate(expression, mode), expression);
+    }
+
+    private CalculatorService calculatorService(EvaluationMode mode) {
+        return CalculatorServices.pipeline(operationRegistry)
+                .expressionCache(new CompiledExpressionCache(10_000, 1024))
+                .evaluationMode(mode)
+                .build();
+    }
+}
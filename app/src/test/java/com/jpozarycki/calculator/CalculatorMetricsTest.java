@@ -0,0 +1,90 @@
+package com.jpozarycki.calculator;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalculatorMetricsTest {
+    private MeterRegistry registry;
+    private OperationRegistry operationRegistry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        operationRegistry = new OperationRegistry();
+    }
+
+    @ParameterizedTest
+    @EnumSource(EvaluationMode.class)
+    void shouldCountErrorsByType(EvaluationMode mode) {
+        CalculatorService calculatorService = calculatorService(mode, new CompiledExpressionCache(0, 0));
+
+        for (String expression : new String[]{"10 / 0", "2 & 3", "2 + * 3", "", "99999999999 + 1", "1 / 0"}) {
+            assertThrows(RuntimeException.class, () -> calculatorService.calculate(expression));
+        }
+
+        assertEquals(2, registry.get("calculator.errors").tag("type", "division_by_zero").counter().count());
+        assertEquals(1, registry.get("calculator.errors").tag("type", "invalid_character").counter().count());
+        assertEquals(2, registry.get("calculator.errors").tag("type", "malformed").counter().count());
+        assertEquals(1, registry.get("calculator.errors").tag("type", "number_out_of_range").counter().count());
+        assertEquals(6, registry.get("calculator.calculations").tag("outcome", "error").timers().stream()
+                .mapToLong(Timer::count)
+                .sum());
+    }
+
+    @Test
+    void shouldCountFractionalExponentsApartFromDivisionByZero() {
+        CalculatorService calculatorService = calculatorService(EvaluationMode.PIPELINE, new CompiledExpressionCache(0, 0));
+
+        assertThrows(ArithmeticException.class, () -> calculatorService.calculate("4 ^ (1 / 2)", NumericMode.DECIMAL));
+        assertThrows(ArithmeticException.class, () -> calculatorService.calculate("2 ^ (3 / 2)", NumericMode.DECIMAL));
+
+        assertEquals(2, registry.get("calculator.errors").tag("type", "fractional_exponent").counter().count());
+        assertEquals(0, registry.get("calculator.errors").tag("type", "division_by_zero").counter().count());
+    }
+
+    @Test
+    void shouldTimeStagesAndCountOperatorsInPipeline() {
+        CalculatorService calculatorService = calculatorService(EvaluationMode.PIPELINE, new CompiledExpressionCache(0, 0));
+
+        calculatorService.calculate("2 + 3 * 4 - 4");
+        calculatorService.calculate("6 / 3 * 2");
+
+        assertEquals(2, registry.get("calculator.stage").tag("stage", "tokenize").timer().count());
+        assertEquals(2, registry.get("calculator.stage").tag("stage", "validate").timer().count());
+        assertEquals(2, registry.get("calculator.stage").tag("stage", "evaluate").timer().count());
+        assertEquals(2, registry.get("calculator.operations").tag("operator", "*").counter().count());
+        assertEquals(1, registry.get("calculator.operations").tag("operator", "/").counter().count());
+        assertEquals(12, registry.get("calculator.expression.tokens").summary().totalAmount());
+        assertEquals(2, registry.get("calculator.calculations").tag("mode", "pipeline").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void shouldCountOperatorsOfCachedExpressionsOnEveryHit() {
+        CalculatorService calculatorService = calculatorService(EvaluationMode.PIPELINE, new CompiledExpressionCache(10_000, 1024));
+
+        for (int i = 0; i < 3; i++) {
+            calculatorService.calculate("1 + 2 + 3 * 4");
+        }
+
+        assertEquals(1, registry.get("calculator.stage").tag("stage", "compile").timer().count());
+        assertEquals(3, registry.get("calculator.stage").tag("stage", "evaluate").timer().count());
+        assertEquals(6, registry.get("calculator.operations").tag("operator", "+").counter().count());
+        assertEquals(3, registry.get("calculator.operations").tag("operator", "*").counter().count());
+        assertEquals(21, registry.get("calculator.expression.tokens").summary().totalAmount());
+    }
+
+    private CalculatorService calculatorService(EvaluationMode mode, CompiledExpressionCache expressionCache) {
+        return CalculatorServices.pipeline(operationRegistry)
+                .evaluationMode(mode)
+                .expressionCache(expressionCache)
+                .metrics(new CalculatorMetrics(registry))
+                .build();
+    }
+}
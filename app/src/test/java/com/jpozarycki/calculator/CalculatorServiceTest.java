@@ -15,11 +15,9 @@ class CalculatorServiceTest {
     @BeforeEach
     void setUp() {
         var operationRegistry = new OperationRegistry();
-        calculatorService = new CalculatorService(
-                new OperationRegistry(),
-                new ShuntingYardEvaluator(operationRegistry),
-                new BasicExpressionTokenizer(operationRegistry),
-                new BasicExpressionValidator());
+        calculatorService = CalculatorServices.pipeline(operationRegistry)
+                .expressionCache(new CompiledExpressionCache(10_000, 1024))
+                .build();
     }
 
     @Nested
@@ -66,6 +64,27 @@ class CalculatorServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("Grouping and Powers")
+    class GroupingAndPowers {
+        @ParameterizedTest
+        @CsvFileSource(resources = "/calculator/grouping-and-powers.csv", numLinesToSkip = 1)
+        @DisplayName("Grouping and powers: {0} = {1}")
+        void testGroupingAndPowers(String expression, int expected) {
+            assertEquals(expected, calculatorService.calculate(expression));
+        }
+
+        @Test
+        @DisplayName("Deeply nested parentheses do not exhaust the stack")
+        void testDeeplyNestedParentheses() {
+            int depth = 200_000;
+            String expression = "(".repeat(depth) + "1 + 2" + ") * 1".repeat(depth - 1) + ")";
+
+            assertEquals(3, calculatorService.calculate(expression));
+            assertEquals(-7, calculatorService.calculate("- ".repeat(depth + 1) + "7"));
+        }
+    }
+
     @Nested
     @DisplayName("Edge Cases")
     class EdgeCases {
@@ -0,0 +1,68 @@
+package com.jpozarycki.calculator;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.math.RoundingMode;
+
+// Uncached pipeline over one registry; tests set only what they depend on
+final class CalculatorServices {
+    private final OperationRegistry operationRegistry;
+    private EvaluationMode evaluationMode = EvaluationMode.PIPELINE;
+    private ProgramShapes programShapes = new ProgramShapes(0);
+    private CompiledExpressionCache expressionCache = new CompiledExpressionCache(0, 0);
+    private ResultCache resultCache = new ResultCache(0, 0, null);
+    private int decimalScale = -1;
+    private CalculatorMetrics metrics;
+
+    private CalculatorServices(OperationRegistry operationRegistry) {
+        this.operationRegistry = operationRegistry;
+    }
+
+    static CalculatorServices pipeline(OperationRegistry operationRegistry) {
+        return new CalculatorServices(operationRegistry);
+    }
+
+    CalculatorServices evaluationMode(EvaluationMode evaluationMode) {
+        this.evaluationMode = evaluationMode;
+        return this;
+    }
+
+    CalculatorServices programShapes(ProgramShapes programShapes) {
+        this.programShapes = programShapes;
+        return this;
+    }
+
+    CalculatorServices expressionCache(CompiledExpressionCache expressionCache) {
+        this.expressionCache = expressionCache;
+        return this;
+    }
+
+    CalculatorServices resultCache(ResultCache resultCache) {
+        this.resultCache = resultCache;
+        return this;
+    }
+
+    CalculatorServices decimalScale(int decimalScale) {
+        this.decimalScale = decimalScale;
+        return this;
+    }
+
+    CalculatorServices metrics(CalculatorMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    CalculatorService build() {
+        return new CalculatorService(operationRegistry,
+                new ShuntingYardEvaluator(operationRegistry),
+                new BasicExpressionTokenizer(operationRegistry),
+                new BasicExpressionValidator(),
+                new PostfixExpressionCompiler(operationRegistry, programShapes, true),
+                expressionCache,
+                new SinglePassExpressionEvaluator(operationRegistry),
+                new NumericExpressionEvaluator(operationRegistry, 34, RoundingMode.HALF_EVEN, decimalScale),
+                evaluationMode,
+                metrics != null ? metrics : new CalculatorMetrics(new SimpleMeterRegistry()),
+                resultCache);
+    }
+}
@@ -0,0 +1,127 @@
+package com.jpozarycki.calculator;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoalescingCalculatorTest {
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void shouldShareOneCallBetweenConcurrentCallers() throws Exception {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>(100);
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Integer> results = runConcurrently(8, release, () -> singleFlight.run("2 + 3", blockingCall(release, () -> 5)));
+
+        assertEquals(List.of(5, 5, 5, 5, 5, 5, 5, 5), results);
+        assertEquals(1, calls.get());
+        assertEquals(7, singleFlight.coalesced());
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    void shouldGiveEveryCallerTheSameException() throws Exception {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>(100);
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Integer> results = runConcurrently(4, release, () -> {
+            try {
+                return singleFlight.run("1 / 0", blockingCall(release, () -> {
+                    throw new ArithmeticException("Division by zero");
+                }));
+            } catch (ArithmeticException e) {
+                return -1;
+            }
+        });
+
+        assertEquals(List.of(-1, -1, -1, -1), results);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void shouldForgetCompletedCalls() {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>(100);
+
+        singleFlight.run("2 + 3", () -> calls.incrementAndGet());
+        singleFlight.run("2 + 3", () -> calls.incrementAndGet());
+
+        assertEquals(2, calls.get());
+        assertEquals(0, singleFlight.coalesced());
+    }
+
+    @Test
+    void shouldRunOnItsOwnWhenInFlightTableIsFull() {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>(1);
+
+        int result = singleFlight.run("first", () -> singleFlight.run("second", () -> 7));
+
+        assertEquals(7, result);
+        assertEquals(1, singleFlight.overflows());
+    }
+
+    @Test
+    void shouldKeepNumericModesApartAndPublishMetrics() {
+        var meterRegistry = new SimpleMeterRegistry();
+        var metrics = new CalculatorMetrics(meterRegistry);
+        var operationRegistry = new OperationRegistry();
+        var calculatorService = CalculatorServices.pipeline(operationRegistry)
+                .expressionCache(new CompiledExpressionCache(10_000, 1024))
+                .metrics(metrics)
+                .build();
+        var calculator = new CoalescingCalculator(calculatorService, metrics, 100);
+
+        assertEquals(Integer.MIN_VALUE, calculator.calculate("2147483647 + 1"));
+        assertEquals(2147483648L, calculator.calculate("2147483647 + 1", NumericMode.LONG));
+        assertThrows(ArithmeticException.class, () -> calculator.calculate("1 / 0"));
+        assertEquals(0, meterRegistry.get("calculator.single_flight.coalesced").functionCounter().count());
+        assertEquals(0, meterRegistry.get("calculator.single_flight.in_flight").gauge().value());
+    }
+
+    // The call waits for the release, so every caller has joined before it completes
+    private <T> Supplier<T> blockingCall(CountDownLatch release, Supplier<T> call) {
+        return () -> {
+            calls.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return call.get();
+        };
+    }
+
+    private static <T> List<T> runConcurrently(int callers, CountDownLatch release, Supplier<T> call) throws Exception {
+        List<Thread> threads = new ArrayList<>();
+        List<Future<T>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(callers, runnable -> {
+            Thread thread = new Thread(runnable);
+            threads.add(thread);
+            return thread;
+        })) {
+            for (int i = 0; i < callers; i++) {
+                futures.add(executor.submit(call::get));
+            }
+            // One caller waits for the release and the others for its result
+            while (threads.size() < callers || threads.stream().anyMatch(thread -> thread.getState() != Thread.State.WAITING)) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        }
+    }
+}
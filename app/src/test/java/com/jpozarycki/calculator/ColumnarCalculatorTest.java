@@ -0,0 +1,75 @@
+package com.jpozarycki.calculator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarCalculatorTest {
+    private final OperationRegistry operationRegistry = new OperationRegistry();
+    private final CalculatorService calculatorService = CalculatorServices.pipeline(operationRegistry).build();
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void shouldMatchRowByRowEvaluation(boolean vectorized) {
+        ColumnarCalculator columnarCalculator = new ColumnarCalculator(vectorized);
+        PreparedExpression expression = calculatorService.prepare("a * b - -c / (d - 1) + 7 ^ e - -(a / b)");
+        Random random = new Random(22);
+        int rows = 5000;
+        int[][] columns = new int[5][rows];
+        for (int row = 0; row < rows; row++) {
+            columns[0][row] = random.nextInt(8) == 0 ? Integer.MIN_VALUE : random.nextInt();
+            columns[1][row] = random.nextInt(8) == 0 ? random.nextInt(3) - 1 : random.nextInt(1000);
+            columns[2][row] = random.nextInt();
+            columns[3][row] = random.nextInt(5) - 1;
+            columns[4][row] = random.nextInt(40) - 5;
+        }
+
+        ColumnarResult result = columnarCalculator.evaluate(expression, columns);
+
+        assertEquals(rows, result.values().length);
+        for (int row = 0; row < rows; row++) {
+            int[] values = {columns[0][row], columns[1][row], columns[2][row], columns[3][row], columns[4][row]};
+            String message = "row " + row;
+            try {
+                assertEquals(calculatorService.evaluate(expression, values), result.values()[row], message);
+                assertFalse(result.failures().get(row), message);
+            } catch (ArithmeticException e) {
+                assertTrue(result.failures().get(row), message);
+                assertEquals(0, result.values()[row], message);
+            }
+        }
+        assertFalse(result.failures().isEmpty());
+    }
+
+    @Test
+    void shouldUseTheVectorApiWhenItsModuleIsPresent() {
+        assertTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent());
+        assertInstanceOf(VectorColumnKernels.class, new ColumnarCalculator(true).kernels());
+        assertInstanceOf(ScalarColumnKernels.class, new ColumnarCalculator(false).kernels());
+    }
+
+    @Test
+    void shouldEvaluateExpressionWithoutVariablesAsOneRow() {
+        ColumnarResult result = new ColumnarCalculator(true).evaluate(calculatorService.prepare("2 + 3 * 4"));
+
+        assertArrayEquals(new int[]{14}, result.values());
+        assertEquals(new BitSet(), result.failures());
+    }
+
+    @Test
+    void shouldRejectColumnsThatDoNotFitTheExpression() {
+        ColumnarCalculator columnarCalculator = new ColumnarCalculator(true);
+        PreparedExpression expression = calculatorService.prepare("a + b");
+
+        var error = assertThrows(IllegalArgumentException.class,
+                () -> columnarCalculator.evaluate(expression, new int[]{1}));
+        assertEquals("Wrong number of values, expected 2", error.getMessage());
+        assertThrows(IllegalArgumentException.class,
+                () -> columnarCalculator.evaluate(expression, new int[]{1, 2}, new int[]{3}));
+    }
+}
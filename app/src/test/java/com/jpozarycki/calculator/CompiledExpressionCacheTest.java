@@ -0,0 +1,104 @@
+package com.jpozarycki.calculator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledExpressionCacheTest {
+    private CompiledExpressionCache expressionCache;
+    private CalculatorService cached;
+    private CalculatorService uncached;
+
+    @BeforeEach
+    void setUp() {
+        var operationRegistry = new OperationRegistry();
+        expressionCache = new CompiledExpressionCache(10_000, 64);
+        cached = CalculatorServices.pipeline(operationRegistry).expressionCache(expressionCache).build();
+        uncached = CalculatorServices.pipeline(operationRegistry).build();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "2 + 3 * 4 - 4", "10 / 2 / 5", "3 * -2 + 6", "2 + * 3", "2 & 3", "2 3", "10 / 0",
+            "1 / 0 + 99999999999", "99999999999 + 1 / 0", "2147483647 + 1", "-2147483648"
+    })
+    void shouldMatchUncachedPipeline(String expression) {
+        Object expected = outcome(uncached, expression);
+        assertEquals(expected, outcome(cached, expression));
+        assertEquals(expected, outcome(cached, expression));
+    }
+
+    @Test
+    void shouldShareCompiledProgramAcrossSpacingVariants() {
+        assertEquals(7, cached.calculate("3 * 2 + 1"));
+        assertEquals(7, cached.calculate("  3   *  2 +   1 "));
+
+        assertEquals(1, expressionCache.stats().missCount());
+        assertEquals(1, expressionCache.stats().hitCount());
+    }
+
+    @Test
+    void shouldCacheRejectedExpressions() {
+        for (int i = 0; i < 3; i++) {
+            assertThrows(IllegalArgumentException.class, () -> cached.calculate("2 + * 3"));
+        }
+
+        assertEquals(1, expressionCache.stats().missCount());
+        assertEquals(2, expressionCache.stats().hitCount());
+    }
+
+    @Test
+    void shouldBypassCacheForLongExpressions() {
+        String expression = "1" + " + 1".repeat(100);
+
+        assertEquals(101, cached.calculate(expression));
+        assertEquals(0, expressionCache.stats().requestCount());
+    }
+
+    @Test
+    void shouldNotKeepProgramCompiledAcrossInvalidation() throws Exception {
+        CompiledExpression previous = CompiledExpression.rejected(new IllegalArgumentException("Unknown operator: %"));
+        CountDownLatch compiling = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Future<CompiledExpression> compile = executor.submit(() -> expressionCache.get("7 % 4", expression -> {
+                compiling.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return previous;
+            }));
+            compiling.await();
+            // The operator is registered while the compile is still running against the previous table
+            Thread invalidation = Thread.ofPlatform().start(() -> expressionCache.invalidate("%"));
+            while (invalidation.getState() != Thread.State.WAITING && invalidation.getState() != Thread.State.TERMINATED) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+            assertSame(previous, compile.get());
+            invalidation.join();
+        }
+
+        CompiledExpression current = CompiledExpression.rejected(new IllegalArgumentException("Division by zero"));
+        assertSame(current, expressionCache.get("7 % 4", expression -> current));
+    }
+
+    private static Object outcome(CalculatorFacade calculator, String expression) {
+        try {
+            return calculator.calculate(expression);
+        } catch (RuntimeException e) {
+            return e.getClass().getName() + ": " + e.getMessage();
+        }
+    }
+}
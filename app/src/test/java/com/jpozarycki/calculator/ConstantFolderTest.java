@@ -0,0 +1,178 @@
+package com.jpozarycki.calculator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConstantFolderTest {
+    private static final String[] OPERATORS = {"+", "-", "*", "/", "^"};
+    private static final String[] LITERALS = {"0", "1", "-1", "2", "3", "0", "1", "2147483647", "-2147483648"};
+    private static final String[] VARIABLES = {"a", "b", "-c"};
+
+    private OperationRegistry operationRegistry;
+    private BasicExpressionTokenizer tokenizer;
+    private ShuntingYardEvaluator evaluator;
+    private PostfixExpressionCompiler folding;
+    private PostfixExpressionCompiler plain;
+
+    @BeforeEach
+    void setUp() {
+        operationRegistry = new OperationRegistry();
+        tokenizer = new BasicExpressionTokenizer(operationRegistry);
+        evaluator = new ShuntingYardEvaluator(operationRegistry);
+        folding = new PostfixExpressionCompiler(operationRegistry, new ProgramShapes(0), true);
+        plain = new PostfixExpressionCompiler(operationRegistry, new ProgramShapes(0), false);
+    }
+
+    @Test
+    void shouldMatchShuntingYardOnGeneratedExpressions() {
+        Random random = new Random(23);
+        for (int i = 0; i < 5_000; i++) {
+            String expression = generate(random, 1 + random.nextInt(12), false);
+            List<String> tokens = tokenizer.tokenize(expression);
+            CompiledExpression compiled = folding.compile(tokens);
+
+            assertSameOutcome(expression, () -> evaluator.evaluate(tokens), compiled::evaluate);
+            assertTrue(compiled.instructionCount() <= plain.compile(tokens).instructionCount(), expression);
+        }
+    }
+
+    @Test
+    void shouldMatchUnfoldedProgramForEveryValue() {
+        Random random = new Random(23);
+        for (int i = 0; i < 2_000; i++) {
+            String expression = generate(random, 1 + random.nextInt(12), true);
+            List<String> tokens = tokenizer.tokenizeWithVariables(expression);
+            CompiledExpression folded = folding.compile(tokens);
+            CompiledExpression unfolded = plain.compile(tokens);
+            assertEquals(unfolded.variables().names(), folded.variables().names(), expression);
+
+            for (int row = 0; row < 5; row++) {
+                int[] values = new int[unfolded.variables().names().size()];
+                for (int v = 0; v < values.length; v++) {
+                    values[v] = random.nextBoolean() ? random.nextInt(3) - 1 : random.nextInt();
+                }
+                assertSameOutcome(expression, () -> unfolded.evaluate(values), () -> folded.evaluate(values));
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "2 * 3 + 4,                   1",
+            "x * 1 + 0,                   1",
+            "1 + x / 1 - 1,               1",
+            "1 + 2 + x + 3 - 4,           3",
+            "2 * x * 3 * y,               5",
+            "0 * (x - y * z),             1",
+            "x ^ 0 + y ^ 1,               3",
+            "-(x + 2) + 2,                3",
+            "x + 1 + y + 1,               5",
+            "0 * (x / y),                 5",
+            "(x / y) ^ 0,                 5",
+            "x / 0 * 0,                   5",
+            "-1 ^ -1 + x / 2,             5"
+    })
+    void shouldShrinkProgram(String expression, int instructions) {
+        assertEquals(instructions, folding.compile(tokenizer.tokenizeWithVariables(expression)).instructionCount());
+    }
+
+    @Test
+    void shouldKeepErrorsThatFoldingWouldHide() {
+        CompiledExpression divided = folding.compile(tokenizer.tokenizeWithVariables("0 * (x / y)"));
+        assertEquals(0, divided.evaluate(new int[]{7, 2}));
+        assertEquals("Division by zero",
+                assertThrows(ArithmeticException.class, () -> divided.evaluate(new int[]{7, 0})).getMessage());
+        assertThrows(ArithmeticException.class, () -> folding.compile(tokenizer.tokenize("1 / 0 * 0")).evaluate());
+        assertThrows(ArithmeticException.class, () -> folding.compile(tokenizer.tokenize("(0 ^ -1) ^ 0")).evaluate());
+    }
+
+    @Test
+    void shouldLeaveOperatorPluginsInPlace() {
+        operationRegistry.register(new Operation() {
+            private int calls;
+
+            @Override
+            public int execute(int left, int right) {
+                return left + right + calls++;
+            }
+
+            @Override
+            public String getSymbol() {
+                return "#";
+            }
+
+            @Override
+            public int getPrecedence() {
+                return 1;
+            }
+
+            @Override
+            public boolean isLeftAssociative() {
+                return true;
+            }
+        });
+        CompiledExpression compiled = folding.compile(tokenizer.tokenize("1 # 2 * 0"));
+
+        assertEquals(1, compiled.evaluate());
+        assertEquals(2, compiled.evaluate());
+        assertEquals(3, compiled.instructionCount());
+    }
+
+    @Test
+    void shouldReportSourceOperatorsAndSize() {
+        CompiledExpression compiled = folding.compile(tokenizer.tokenize("2 * 3 + 4 * 5 - 6"));
+        Map<String, Integer> counts = new HashMap<>();
+        compiled.forEachOperation((operation, count) -> counts.put(operation.getSymbol(), count));
+
+        assertEquals(20, compiled.evaluate());
+        assertEquals(1, compiled.instructionCount());
+        assertEquals(9, compiled.size());
+        assertEquals(Map.of("*", 2, "+", 1, "-", 1), counts);
+    }
+
+    // Operands, operators, negated groups and parentheses, valid by construction
+    private static String generate(Random random, int operands, boolean withVariables) {
+        StringBuilder expression = new StringBuilder();
+        int open = 0;
+        for (int i = 0; i < operands; i++) {
+            if (i > 0) {
+                expression.append(' ').append(OPERATORS[random.nextInt(OPERATORS.length)]).append(' ');
+            }
+            if (random.nextInt(4) == 0) {
+                expression.append(random.nextBoolean() ? "-(" : "(");
+                open++;
+            }
+            expression.append(withVariables && random.nextBoolean()
+                    ? VARIABLES[random.nextInt(VARIABLES.length)]
+                    : LITERALS[random.nextInt(LITERALS.length)]);
+            if (open > 0 && random.nextInt(3) == 0) {
+                expression.append(')');
+                open--;
+            }
+        }
+        return expression.append(")".repeat(open)).toString();
+    }
+
+    private static void assertSameOutcome(String expression, IntSupplier expected, IntSupplier actual) {
+        int value;
+        try {
+            value = expected.getAsInt();
+        } catch (RuntimeException e) {
+            RuntimeException thrown = assertThrows(RuntimeException.class, actual::getAsInt, expression);
+            assertEquals(e.getClass(), thrown.getClass(), expression);
+            assertEquals(e.getMessage(), thrown.getMessage(), expression);
+            return;
+        }
+        assertEquals(value, actual.getAsInt(), expression);
+    }
+}
@@ -0,0 +1,142 @@
+package com.jpozarycki.calculator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpressionSessionTest {
+    private static final List<String> SNIPPETS = List.of(
+            "1", "7", "23", "0", " ", "+", "-", "*", "/", "^", "(", ")", " + 4", " - 5", " * 2", "(3 - 1)", "x");
+
+    private OperationRegistry operationRegistry;
+    private CalculatorService calculatorService;
+    private ExpressionSessions sessions;
+    private final AtomicInteger evaluatedTokens = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        operationRegistry = new OperationRegistry();
+        var tokenizer = new BasicExpressionTokenizer(operationRegistry);
+        var validator = new BasicExpressionValidator();
+        calculatorService = CalculatorServices.pipeline(operationRegistry)
+                .expressionCache(new CompiledExpressionCache(10_000, 1024))
+                .build();
+        var countingEvaluator = new ShuntingYardEvaluator(operationRegistry) {
+            @Override
+            public int evaluate(List<String> tokens) {
+                evaluatedTokens.addAndGet(tokens.size());
+                return super.evaluate(tokens);
+            }
+        };
+        sessions = new ExpressionSessions(new TermSplitter(tokenizer, validator, countingEvaluator, operationRegistry),
+                calculatorService, operationRegistry, 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void shouldFollowEdits() {
+        ExpressionSession session = sessions.open("2 + 3 * 4");
+        assertEquals(14, session.value());
+
+        assertEquals(20, session.edit(0, 1, "8"));
+        assertEquals(-4, session.edit(2, 1, "-"));
+
+        var error = assertThrows(IllegalArgumentException.class, () -> session.edit(0, 1, "-(8"));
+        assertEquals("-(8 - 3 * 4", session.expression());
+        assertEquals(ExpressionError.MISSING_CLOSING_PARENTHESIS.message(), error.getMessage());
+        assertEquals(4, session.edit(session.expression().length(), 0, ")"));
+    }
+
+    @Test
+    void shouldReportTheErrorsOfAFullCalculation() {
+        ExpressionSession session = sessions.open("");
+        assertThrows(IllegalArgumentException.class, session::value);
+
+        assertThrows(IllegalArgumentException.class, () -> session.edit(0, 0, "1 +"));
+        assertEquals(3, session.edit(3, 0, " 2"));
+        var error = assertThrows(ArithmeticException.class, () -> session.edit(5, 0, " / 0"));
+        assertEquals("Division by zero", error.getMessage());
+        assertThrows(IndexOutOfBoundsException.class, () -> session.edit(9, 1, ""));
+        assertEquals("1 + 2 / 0", session.expression());
+    }
+
+    @Test
+    void shouldMatchFullCalculationAfterRandomEdits() {
+        Random random = new Random(17);
+        StringBuilder expression = new StringBuilder("1");
+        for (int i = 0; i < 200; i++) {
+            expression.append(random.nextBoolean() ? " + " : " - ").append(random.nextInt(100))
+                    .append(random.nextBoolean() ? " * " + random.nextInt(10) : "");
+        }
+        ExpressionSession session = sessions.open(expression.toString());
+
+        for (int i = 0; i < 2000; i++) {
+            int offset = random.nextInt(expression.length() + 1);
+            int deleted = random.nextInt(4) == 0 ? random.nextInt(Math.min(8, expression.length() - offset) + 1) : 0;
+            String inserted = deleted > 0 && random.nextBoolean() ? "" : SNIPPETS.get(random.nextInt(SNIPPETS.size()));
+            expression.replace(offset, offset + deleted, inserted);
+
+            String expected = outcome(() -> calculatorService.calculate(expression.toString()));
+            assertEquals(expected, outcome(() -> session.edit(offset, deleted, inserted)), expression::toString);
+            assertEquals(expression.toString(), session.expression());
+        }
+    }
+
+    @Test
+    void shouldOnlyEvaluateTheTermsAnEditTouches() {
+        StringBuilder expression = new StringBuilder("1");
+        for (int i = 0; i < 10_000; i++) {
+            expression.append(" + ").append(i % 7).append(" * 3");
+        }
+        ExpressionSession session = sessions.open(expression.toString());
+        int offset = expression.indexOf("5 * 3");
+
+        evaluatedTokens.set(0);
+        session.edit(offset, 1, "(4 - 2) ^ 2");
+        expression.replace(offset, offset + 1, "(4 - 2) ^ 2");
+
+        assertEquals(calculatorService.calculate(expression.toString()), session.value());
+        assertTrue(evaluatedTokens.get() < 50, () -> evaluatedTokens.get() + " tokens evaluated");
+    }
+
+    @Test
+    void shouldFollowReplacedOperators() {
+        ExpressionSession session = sessions.open("2147483647 + 1");
+        assertEquals(Integer.MIN_VALUE, session.value());
+
+        operationRegistry.register(new AdditionOperation() {
+            @Override
+            public int execute(int left, int right) {
+                return Math.addExact(left, right);
+            }
+        });
+
+        assertThrows(ArithmeticException.class, session::value);
+        assertEquals(Integer.MAX_VALUE, session.edit(13, 1, "0"));
+        assertThrows(ArithmeticException.class, () -> session.edit(13, 1, "2"));
+    }
+
+    @Test
+    void shouldFindAndCloseSessions() {
+        ExpressionSession session = sessions.open("1 + 1");
+
+        assertSame(session, sessions.find(session.id()).orElseThrow());
+        assertTrue(sessions.close(session.id()));
+        assertFalse(sessions.close(session.id()));
+        assertTrue(sessions.find(session.id()).isEmpty());
+    }
+
+    private static String outcome(IntSupplier calculation) {
+        try {
+            return String.valueOf(calculation.getAsInt());
+        } catch (RuntimeException e) {
+            return e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+    }
+}
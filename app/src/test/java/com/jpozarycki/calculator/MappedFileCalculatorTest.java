@@ -0,0 +1,89 @@
+package com.jpozarycki.calculator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedFileCalculatorTest {
+    @TempDir
+    Path directory;
+
+    private SinglePassExpressionEvaluator evaluator;
+    private MappedFileCalculator fileCalculator;
+
+    @BeforeEach
+    void setUp() {
+        evaluator = new SinglePassExpressionEvaluator(new OperationRegistry());
+        fileCalculator = new MappedFileCalculator(evaluator, 4);
+    }
+
+    @Test
+    void shouldWriteOneResultPerLine() throws IOException {
+        Path input = Files.writeString(directory.resolve("input.txt"),
+                "2 + 3\r\n3 * -2 + 6\n\n10 / 0\n2 & 3\n-2147483648\n7 / 2");
+        Path output = directory.resolve("output.txt");
+
+        FileCalculationSummary summary = fileCalculator.calculate(input, output);
+
+        assertEquals(List.of(
+                "5",
+                "0",
+                "error: Expression cannot be empty",
+                "error: Division by zero",
+                "error: Invalid character in expression. Please use only digits (0-9), operators (+, -, *, /, ^), parentheses, and spaces.",
+                "-2147483648",
+                "3"), Files.readAllLines(output));
+        assertEquals(7, summary.expressions());
+        assertEquals(3, summary.errors());
+    }
+
+    @Test
+    void shouldPreserveLineOrderAcrossSegments() throws IOException {
+        Random random = new Random(7);
+        List<String> lines = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            String expression = random.nextInt(1000) + " * " + random.nextInt(10) + " - " + i;
+            lines.add(expression);
+            expected.add(outcome(expression));
+        }
+        Path input = Files.write(directory.resolve("input.txt"), lines);
+        Path output = directory.resolve("output.txt");
+
+        FileCalculationSummary summary = fileCalculator.calculate(input, output);
+
+        assertEquals(expected, Files.readAllLines(output));
+        assertEquals(10_000, summary.expressions());
+        try (var files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    void shouldHandleEmptyFile() throws IOException {
+        Path input = Files.createFile(directory.resolve("input.txt"));
+        Path output = directory.resolve("output.txt");
+
+        FileCalculationSummary summary = fileCalculator.calculate(input, output);
+
+        assertEquals(0, summary.expressions());
+        assertEquals(0, Files.size(output));
+    }
+
+    private String outcome(String expression) {
+        try {
+            return String.valueOf(evaluator.evaluate(expression));
+        } catch (RuntimeException e) {
+            return "error: " + e.getMessage();
+        }
+    }
+}
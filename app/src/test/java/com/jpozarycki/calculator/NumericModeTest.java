@@ -0,0 +1,238 @@
+package com.jpozarycki.calculator;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NumericModeTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OperationRegistry operationRegistry = new OperationRegistry();
+    private final CalculatorService calculatorService = calculatorService(-1);
+
+    @Test
+    void shouldWrapInIntMode() {
+        assertEquals(Integer.MIN_VALUE, calculatorService.calculate("2147483647 + 1", NumericMode.INT));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "'2147483647 + 1', 2147483648",
+            "'99999999999 * 3 - 1', 299999999996",
+            "'-9223372036854775807 - 1', -9223372036854775808",
+            "'7 / 2 * 2', 6",
+            "'10 / 2 + 3 * -4 - 1', -8"
+    })
+    void shouldEvaluateInLongMode(String expression, long expected) {
+        assertEquals(expected, calculatorService.calculate(expression, NumericMode.LONG));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "'9223372036854775807 + 1'",
+            "'-9223372036854775807 - 2'",
+            "'4294967296 * 4294967296'",
+            "'-9223372036854775808 / -1'"
+    })
+    void shouldFailOnLongOverflow(String expression) {
+        ArithmeticException exception = assertThrows(ArithmeticException.class,
+                () -> calculatorService.calculate(expression, NumericMode.LONG));
+
+        assertEquals("Arithmetic overflow", exception.getMessage());
+    }
+
+    @Test
+    void shouldCountOverflowSeparately() {
+        assertThrows(ArithmeticException.class,
+                () -> calculatorService.calculate("9223372036854775807 + 1", NumericMode.LONG));
+
+        assertEquals(1.0, meterRegistry.get("calculator.errors").tag("type", "overflow").counter().count());
+    }
+
+    @Test
+    void shouldEvaluateArbitraryIntegers() {
+        assertEquals(new BigInteger("85070591730234615847396907784232501249"),
+                calculatorService.calculate("9223372036854775807 * 9223372036854775807", NumericMode.BIG_INTEGER));
+        assertEquals(BigInteger.valueOf(-3), calculatorService.calculate("-7 / 2", NumericMode.BIG_INTEGER));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "'10 / 4', 2.5",
+            "'2 * 3', 6",
+            "'1 / 3', 0.3333333333333333333333333333333333",
+            "'100000000000000000000 / 8 - 1', 12499999999999999999",
+            "'1 / 8 * 8', 1"
+    })
+    void shouldEvaluateDecimals(String expression, String expected) {
+        BigDecimal result = (BigDecimal) calculatorService.calculate(expression, NumericMode.DECIMAL);
+
+        assertEquals(expected, result.toPlainString());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "'2 ^ 62', 4611686018427387904",
+            "'(2147483647 + 1) * -(2 - 4)', 4294967296",
+            "'-(-9223372036854775807)', 9223372036854775807",
+            "'3 ^ 2 ^ 2', 81",
+            "'-1 ^ 9223372036854775807', -1"
+    })
+    void shouldEvaluateGroupingAndPowersInLongMode(String expression, long expected) {
+        assertEquals(expected, calculatorService.calculate(expression, NumericMode.LONG));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "'2 ^ 63'",
+            "'-(-9223372036854775808)'",
+            "'(-3) ^ 41'"
+    })
+    void shouldFailOnLongOverflowOfPowersAndNegation(String expression) {
+        assertEquals("Arithmetic overflow", assertThrows(ArithmeticException.class,
+                () -> calculatorService.calculate(expression, NumericMode.LONG)).getMessage());
+    }
+
+    @Test
+    void shouldBoundArbitraryPrecisionPowers() {
+        assertEquals(new BigInteger("1267650600228229401496703205376"),
+                calculatorService.calculate("2 ^ 100", NumericMode.BIG_INTEGER));
+        assertEquals(BigInteger.ONE.negate(),
+                calculatorService.calculate("-1 ^ 99999999999999999999", NumericMode.BIG_INTEGER));
+        assertEquals(BigInteger.ZERO, calculatorService.calculate("5 ^ -1", NumericMode.BIG_INTEGER));
+        assertEquals("Arithmetic overflow", assertThrows(ArithmeticException.class,
+                () -> calculatorService.calculate("2 ^ 1000000", NumericMode.BIG_INTEGER)).getMessage());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "'2 ^ -2', 0.25",
+            "'10 ^ -3', 0.001",
+            "'(1 / 4) ^ 2', 0.0625",
+            "'-(3 / 2)', -1.5"
+    })
+    void shouldEvaluateDecimalPowers(String expression, String expected) {
+        BigDecimal result = (BigDecimal) calculatorService.calculate(expression, NumericMode.DECIMAL);
+
+        assertEquals(expected, result.toPlainString());
+    }
+
+    @Test
+    void shouldRejectFractionalAndZeroBaseNegativeExponents() {
+        assertEquals(ExpressionError.FRACTIONAL_EXPONENT.message(), assertThrows(ArithmeticException.class,
+                () -> calculatorService.calculate("4 ^ (1 / 2)", NumericMode.DECIMAL)).getMessage());
+        assertEquals("Division by zero", assertThrows(ArithmeticException.class,
+                () -> calculatorService.calculate("0 ^ -1", NumericMode.DECIMAL)).getMessage());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "'10 ^ 999999999'",
+            "'10 ^ -999999999'",
+            "'10000000000 ^ 999999999'",
+            "'(1 / 10) ^ 10000'"
+    })
+    void shouldRejectDecimalPowersBeyondMaxScale(String expression) {
+        assertEquals("Arithmetic overflow", assertThrows(ArithmeticException.class,
+                () -> calculatorService(2).calculate(expression, NumericMode.DECIMAL)).getMessage());
+    }
+
+    @Test
+    void shouldBoundExactDecimalPowers() {
+        PowerOperation power = new PowerOperation();
+
+        assertEquals(new BigDecimal("0.0001"),
+                power.execute(new BigDecimal("0.1"), BigDecimal.valueOf(4), MathContext.UNLIMITED));
+        ArithmeticException e = assertThrows(ArithmeticException.class,
+                () -> power.execute(new BigDecimal("0.1"), BigDecimal.valueOf(20000), MathContext.UNLIMITED));
+        assertEquals(ExpressionError.OVERFLOW, ExpressionException.failure(e).error());
+    }
+
+    @Test
+    void shouldApplyConfiguredScale() {
+        CalculatorService scaled = calculatorService(2);
+
+        assertEquals(new BigDecimal("0.67"), scaled.calculate("2 / 3", NumericMode.DECIMAL));
+        assertEquals(new BigDecimal("5.00"), scaled.calculate("2 + 3", NumericMode.DECIMAL));
+    }
+
+    @Test
+    void shouldRejectDecimalsBeyondMaxScale() {
+        String tiny = "1" + " / 1000".repeat(NumericExpressionEvaluator.MAX_SCALE / 3 + 1);
+        for (String expression : List.of(tiny, "10 ^ 10000", "10 ^ 999999999")) {
+            assertEquals("Arithmetic overflow", assertThrows(ArithmeticException.class,
+                    () -> calculatorService.calculate(expression, NumericMode.DECIMAL)).getMessage());
+        }
+        assertEquals("Arithmetic overflow", assertThrows(ArithmeticException.class,
+                () -> calculatorService(2).calculate("10 ^ 999999999", NumericMode.DECIMAL)).getMessage());
+        assertEquals(10000, ((BigDecimal) calculatorService.calculate("10 ^ 9999", NumericMode.DECIMAL))
+                .toPlainString().length());
+    }
+
+    @ParameterizedTest
+    @EnumSource(NumericMode.class)
+    void shouldReportErrorsInTheSameOrderInEveryMode(NumericMode mode) {
+        assertEquals("Division by zero", assertThrows(ArithmeticException.class,
+                () -> calculatorService.calculate("1 / 0 + 99999999999999999999", mode)).getMessage());
+        assertThrows(IllegalArgumentException.class, () -> calculatorService.calculate("2 + * 3", mode));
+        assertEquals(ExpressionError.MISSING_CLOSING_PARENTHESIS.message(), assertThrows(IllegalArgumentException.class,
+                () -> calculatorService.calculate("(1 / 0", mode)).getMessage());
+        assertEquals(ExpressionError.EMPTY_EXPRESSION.message(), assertThrows(IllegalArgumentException.class,
+                () -> calculatorService.calculate("  ", mode)).getMessage());
+    }
+
+    @Test
+    void shouldRejectLiteralsOutsideTheMode() {
+        assertThrows(NumberFormatException.class, () -> calculatorService.calculate("2147483648", NumericMode.INT));
+        assertThrows(NumberFormatException.class,
+                () -> calculatorService.calculate("9223372036854775808", NumericMode.LONG));
+    }
+
+    @Test
+    void shouldRejectWiderModesForIntOnlyOperations() {
+        operationRegistry.register(new Operation() {
+            @Override
+            public int execute(int left, int right) {
+                return left % right;
+            }
+
+            @Override
+            public String getSymbol() {
+                return "%";
+            }
+
+            @Override
+            public int getPrecedence() {
+                return 2;
+            }
+
+            @Override
+            public boolean isLeftAssociative() {
+                return true;
+            }
+        });
+
+        assertEquals(2, calculatorService.calculate("17 % 5", NumericMode.INT));
+        for (NumericMode mode : List.of(NumericMode.LONG, NumericMode.BIG_INTEGER, NumericMode.DECIMAL)) {
+            CalculationResult.Failure failure = assertInstanceOf(CalculationResult.Failure.class,
+                    calculatorService.tryCalculate("99999999999 % 5", mode));
+            assertEquals(ExpressionError.UNSUPPORTED_MODE, failure.error());
+            assertEquals("Operator % does not support " + mode, failure.message());
+        }
+    }
+
+    private CalculatorService calculatorService(int scale) {
+        return CalculatorServices.pipeline(operationRegistry)
+                .decimalScale(scale)
+                .metrics(new CalculatorMetrics(meterRegistry))
+                .build();
+    }
+}
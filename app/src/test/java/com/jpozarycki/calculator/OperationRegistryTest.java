@@ -0,0 +1,220 @@
+package com.jpozarycki.calculator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationRegistryTest {
+    private OperationRegistry operationRegistry;
+    private CompiledExpressionCache expressionCache;
+    private CalculatorService calculatorService;
+
+    @BeforeEach
+    void setUp() {
+        operationRegistry = new OperationRegistry();
+        expressionCache = new CompiledExpressionCache(10_000, 1024);
+        calculatorService = CalculatorServices.pipeline(operationRegistry)
+                .expressionCache(expressionCache)
+                .build();
+    }
+
+    @Test
+    void shouldInvalidateOnlyCachedExpressionsUsingChangedSymbol() {
+        assertThrows(IllegalArgumentException.class, () -> calculatorService.calculate("7 % 4"));
+        assertEquals(3, calculatorService.calculate("1 + 2"));
+
+        operationRegistry.register(new ModuloOperation());
+
+        assertEquals(3, calculatorService.calculate("7 % 4"));
+        assertEquals(3, calculatorService.calculate("1 + 2"));
+        assertEquals(1, expressionCache.stats().hitCount());
+    }
+
+    @Test
+    void shouldRecompileExpressionsWhenOperatorIsReplaced() {
+        assertEquals(5, calculatorService.calculate("2 + 3"));
+
+        operationRegistry.register(new AdditionOperation() {
+            @Override
+            public int execute(int left, int right) {
+                return Math.addExact(left, right);
+            }
+        });
+
+        assertEquals(5, calculatorService.calculate("2 + 3"));
+        assertThrows(ArithmeticException.class, () -> calculatorService.calculate("2147483647 + 1"));
+    }
+
+    @Test
+    void shouldOnlyUnregisterTheRegisteredInstance() {
+        ModuloOperation first = new ModuloOperation();
+        ModuloOperation second = new ModuloOperation();
+        operationRegistry.register(first);
+        operationRegistry.register(second);
+
+        assertFalse(operationRegistry.unregister(first));
+        assertTrue(operationRegistry.isValidOperator("%"));
+        assertTrue(operationRegistry.unregister(second));
+        assertFalse(operationRegistry.isValidOperator("%"));
+        assertThrows(IllegalArgumentException.class, () -> calculatorService.calculate("7 % 4"));
+    }
+
+    @Test
+    void shouldRejectSymbolsTheTokenizerCannotSeparate() {
+        for (String symbol : List.of("", "x", "1", " ", "_", "(", ")", "**", "<>")) {
+            assertThrows(IllegalArgumentException.class, () -> operationRegistry.register(operation(symbol)));
+        }
+    }
+
+    @Test
+    void shouldKeepServingWhileOperatorsChange() throws Exception {
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(readers.submit(() -> {
+                    for (int j = 0; j < 20_000; j++) {
+                        assertEquals(14, calculatorService.calculate("2 + 3 * 4"));
+                        assertEquals(14, calculatorService.calculate("2 + 3 * 4", NumericMode.LONG).intValue());
+                    }
+                    return null;
+                }));
+            }
+            ModuloOperation modulo = new ModuloOperation();
+            for (int i = 0; i < 2_000; i++) {
+                operationRegistry.register(modulo);
+                operationRegistry.unregister(modulo);
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldRegisterOperationBeans() {
+        var beans = new StaticListableBeanFactory();
+        beans.addBean("modulo", new ModuloOperation());
+        var plugins = new OperationPlugins(operationRegistry, beans.getBeanProvider(Operation.class), "", Duration.ZERO);
+
+        plugins.start();
+
+        assertEquals(3, calculatorService.calculate("7 % 4"));
+    }
+
+    @Test
+    void shouldLoadAndUnloadPluginJars(@TempDir Path directory) throws IOException {
+        var plugins = new OperationPlugins(operationRegistry, new StaticListableBeanFactory().getBeanProvider(Operation.class),
+                directory.toString(), Duration.ZERO);
+        plugins.start();
+        assertThrows(IllegalArgumentException.class, () -> calculatorService.calculate("7 % 4"));
+
+        Path jar = pluginJar(directory, "ModuloOperation", "%", "left % right");
+        plugins.reload();
+        assertEquals(3, calculatorService.calculate("7 % 4"));
+
+        Files.delete(jar);
+        plugins.reload();
+        assertThrows(IllegalArgumentException.class, () -> calculatorService.calculate("7 % 4"));
+        plugins.stop();
+    }
+
+    @Test
+    void shouldChangeFingerprintWhenPluginJarIsRebuilt(@TempDir Path directory) throws IOException {
+        var plugins = new OperationPlugins(operationRegistry, new StaticListableBeanFactory().getBeanProvider(Operation.class),
+                directory.toString(), Duration.ZERO);
+        plugins.start();
+        pluginJar(directory, "ModuloOperation", "%", "left % right");
+        plugins.reload();
+        String truncating = operationRegistry.operatorTable().fingerprint();
+
+        Path jar = pluginJar(directory, "ModuloOperation", "%", "Math.floorMod(left, right)");
+        Files.setLastModifiedTime(jar, FileTime.from(Instant.now().plusSeconds(60)));
+        plugins.reload();
+
+        assertEquals(1, calculatorService.calculate("-7 % 2"));
+        assertNotEquals(truncating, operationRegistry.operatorTable().fingerprint());
+        plugins.stop();
+    }
+
+    private static Path pluginJar(Path directory, String className, String symbol, String body) throws IOException {
+        Path sources = Files.createTempDirectory(directory.getParent(), "plugin-sources");
+        Path source = sources.resolve(className + ".java");
+        Files.writeString(source, """
+                package plugin;
+
+                public class %s implements com.jpozarycki.calculator.Operation {
+                    public int execute(int left, int right) { return %s; }
+                    public String getSymbol() { return "%s"; }
+                    public int getPrecedence() { return 3; }
+                    public boolean isLeftAssociative() { return false; }
+                }
+                """.formatted(className, body, symbol));
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        int status = compiler.run(null, null, null, "-classpath", System.getProperty("java.class.path"),
+                "-d", sources.toString(), source.toString());
+        assertEquals(0, status);
+
+        Path jar = directory.resolve(className + ".jar");
+        try (JarOutputStream output = new JarOutputStream(Files.newOutputStream(jar))) {
+            output.putNextEntry(new JarEntry("plugin/" + className + ".class"));
+            output.write(Files.readAllBytes(sources.resolve("plugin").resolve(className + ".class")));
+            output.putNextEntry(new JarEntry("META-INF/services/com.jpozarycki.calculator.Operation"));
+            output.write(("plugin." + className + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        return jar;
+    }
+
+    private static Operation operation(String symbol) {
+        return new ModuloOperation() {
+            @Override
+            public String getSymbol() {
+                return symbol;
+            }
+        };
+    }
+
+    private static class ModuloOperation implements Operation {
+        @Override
+        public int execute(int left, int right) {
+            return left % right;
+        }
+
+        @Override
+        public String getSymbol() {
+            return "%";
+        }
+
+        @Override
+        public int getPrecedence() {
+            return 2;
+        }
+
+        @Override
+        public boolean isLeftAssociative() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.jpozarycki.calculator;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelExpressionEvaluatorTest {
+    private static final String[] OPERATORS = {"+", "-", "*", "/"};
+
+    private OperationRegistry operationRegistry;
+    private BasicExpressionTokenizer tokenizer;
+    private ShuntingYardEvaluator sequential;
+    private ParallelExpressionEvaluator parallel;
+
+    @BeforeEach
+    void setUp() {
+        operationRegistry = new OperationRegistry();
+        tokenizer = new BasicExpressionTokenizer(operationRegistry);
+        sequential = new ShuntingYardEvaluator(operationRegistry);
+        parallel = new ParallelExpressionEvaluator(sequential, operationRegistry, 8, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        parallel.shutdown();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16})
+    void shouldMatchSequentialEvaluation(int seed) {
+        Random random = new Random(seed);
+        for (int i = 0; i < 50; i++) {
+            List<String> tokens = tokenizer.tokenize(randomExpression(random, 1 + random.nextInt(20_000)));
+            assertEquals(outcome(sequential, tokens), outcome(parallel, tokens));
+        }
+    }
+
+    @Test
+    void shouldWrapAroundLikeSequentialEvaluation() {
+        List<String> tokens = tokenizer.tokenize("2147483647 + 1" + " * 2147483647 - -2147483648".repeat(5000));
+
+        assertEquals(sequential.evaluate(tokens), parallel.evaluate(tokens));
+    }
+
+    @Test
+    void shouldReportFirstFailingTerm() {
+        List<String> tokens = tokenizer.tokenize("1 + 2" + " + 3 * 4".repeat(10_000)
+                + " + 5 / 0 + 99999999999" + " - 6".repeat(10_000));
+
+        ArithmeticException error = assertThrows(ArithmeticException.class, () -> parallel.evaluate(tokens));
+        assertEquals("Division by zero", error.getMessage());
+    }
+
+    @Test
+    void shouldOnlySplitOutsideParentheses() {
+        List<String> tokens = tokenizer.tokenize("-(1 - 2) * 3 ^ 2" + " - (4 + -5 * (6 - 7)) + - 8".repeat(5000)
+                + " - ((9" + " - 1".repeat(10_000) + "))");
+
+        assertEquals(sequential.evaluate(tokens), parallel.evaluate(tokens));
+    }
+
+    @Test
+    void shouldFallBackWhenAnotherOperatorSharesAdditivePrecedence() {
+        operationRegistry.register(new Operation() {
+            @Override
+            public int execute(int left, int right) {
+                return left % right;
+            }
+
+            @Override
+            public String getSymbol() {
+                return "%";
+            }
+
+            @Override
+            public int getPrecedence() {
+                return 1;
+            }
+
+            @Override
+            public boolean isLeftAssociative() {
+                return true;
+            }
+        });
+        List<String> tokens = tokenizer.tokenize("100 + 7 % 5" + " - 1 % 3".repeat(100));
+
+        assertEquals(sequential.evaluate(tokens), parallel.evaluate(tokens));
+    }
+
+    private static String randomExpression(Random random, int operands) {
+        StringBuilder expression = new StringBuilder();
+        appendOperand(expression, random);
+        for (int i = 1; i < operands; i++) {
+            expression.append(' ').append(OPERATORS[random.nextInt(OPERATORS.length)]).append(' ');
+            appendOperand(expression, random);
+        }
+        return expression.toString();
+    }
+
+    private static void appendOperand(StringBuilder expression, Random random) {
+        int kind = random.nextInt(100_000);
+        if (kind == 0) {
+            expression.append(0);
+        } else if (kind == 1) {
+            expression.append("99999999999");
+        } else {
+            expression.append(random.nextBoolean() ? "-" : "").append(1 + random.nextInt(Integer.MAX_VALUE - 1));
+        }
+    }
+
+    private static Object outcome(ExpressionEvaluator evaluator, List<String> tokens) {
+        try {
+            return evaluator.evaluate(tokens);
+        } catch (RuntimeException e) {
+            return e.getClass().getName() + ": " + e.getMessage();
+        }
+    }
+}
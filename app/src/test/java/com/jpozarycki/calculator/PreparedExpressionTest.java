@@ -0,0 +1,119 @@
+package com.jpozarycki.calculator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PreparedExpressionTest {
+    private CalculatorService calculatorService;
+
+    @BeforeEach
+    void setUp() {
+        var operationRegistry = new OperationRegistry();
+        calculatorService = CalculatorServices.pipeline(operationRegistry)
+                .programShapes(new ProgramShapes(2))
+                .expressionCache(new CompiledExpressionCache(10_000, 1024))
+                .build();
+    }
+
+    @Test
+    void shouldListVariablesInOrderOfFirstAppearance() {
+        PreparedExpression prepared = calculatorService.prepare("price * qty - discount + qty");
+
+        assertEquals(List.of("price", "qty", "discount"), prepared.variables());
+        assertEquals("price * qty - discount + qty", prepared.expression());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "'price * qty - discount', 10, 3, 5, 25",
+            "'a + b * c', 2, 3, 4, 14",
+            "'a - b - c', 10, 3, 2, 5",
+            "'a / b / c', 100, 5, 2, 10",
+            "'x_1 * -y2 + 7 - Z', 3, 4, -1, -4"
+    })
+    void shouldMatchCalculateWithSubstitutedValues(String expression, int first, int second, int third, int expected) {
+        PreparedExpression prepared = calculatorService.prepare(expression);
+
+        // Runs past the promotion threshold, so the generated program is checked as well
+        for (int i = 0; i < 4; i++) {
+            assertEquals(expected, calculatorService.evaluate(prepared, first, second, third));
+        }
+        assertEquals(expected, calculatorService.calculate(substitute(expression, prepared.variables(),
+                new int[]{first, second, third})));
+    }
+
+    @Test
+    void shouldBindByName() {
+        PreparedExpression prepared = calculatorService.prepare("price * qty - discount");
+
+        assertEquals(25, calculatorService.evaluate(prepared, Map.of("discount", 5, "qty", 3, "price", 10)));
+        assertEquals(-10, calculatorService.evaluate(prepared, Map.of("discount", 10, "qty", 0, "price", 99)));
+    }
+
+    @Test
+    void shouldEvaluateExpressionWithoutVariables() {
+        PreparedExpression prepared = calculatorService.prepare("2 + 3 * 4");
+
+        assertEquals(List.of(), prepared.variables());
+        assertEquals(14, calculatorService.evaluate(prepared));
+        assertEquals(14, calculatorService.evaluate(prepared, Map.of()));
+    }
+
+    @Test
+    void shouldRejectMissingUnknownAndMiscountedValues() {
+        PreparedExpression prepared = calculatorService.prepare("a + b");
+        Map<String, Integer> withNull = new HashMap<>();
+        withNull.put("a", 1);
+        withNull.put("b", null);
+
+        assertEquals("Missing value for variable: b",
+                assertThrows(IllegalArgumentException.class, () -> calculatorService.evaluate(prepared, Map.of("a", 1))).getMessage());
+        assertEquals("Missing value for variable: b",
+                assertThrows(IllegalArgumentException.class, () -> calculatorService.evaluate(prepared, withNull)).getMessage());
+        assertEquals("Unknown variable: c",
+                assertThrows(IllegalArgumentException.class,
+                        () -> calculatorService.evaluate(prepared, Map.of("a", 1, "b", 2, "c", 3))).getMessage());
+        assertEquals("Wrong number of values, expected 2",
+                assertThrows(IllegalArgumentException.class, () -> calculatorService.evaluate(prepared, 1)).getMessage());
+    }
+
+    @Test
+    void shouldSurfaceEvaluationErrorsPerCall() {
+        PreparedExpression prepared = calculatorService.prepare("total / count");
+
+        assertEquals(5, calculatorService.evaluate(prepared, 10, 2));
+        assertEquals("Division by zero",
+                assertThrows(ArithmeticException.class, () -> calculatorService.evaluate(prepared, 10, 0)).getMessage());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "price *", "2x + 1", "a + * b", "a & b", "a + 99999999999"})
+    void shouldRejectInvalidExpressionsWhenPreparing(String expression) {
+        assertThrows(IllegalArgumentException.class, () -> calculatorService.prepare(expression));
+    }
+
+    @Test
+    void shouldStillRejectVariablesInPlainCalculations() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> calculatorService.calculate("price * 2"));
+
+        assertEquals(ExpressionError.INVALID_CHARACTER.message(), exception.getMessage());
+    }
+
+    private static String substitute(String expression, List<String> variables, int[] values) {
+        String substituted = expression;
+        for (int i = 0; i < variables.size(); i++) {
+            substituted = substituted.replaceAll("\\b" + variables.get(i) + "\\b", String.valueOf(values[i]));
+        }
+        return substituted.replace("--", "");
+    }
+}
@@ -0,0 +1,116 @@
+package com.jpozarycki.calculator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProgramShapesTest {
+    private OperationRegistry operationRegistry;
+    private BasicExpressionTokenizer tokenizer;
+    private PostfixExpressionCompiler interpreted;
+    private ProgramShapes shapes;
+    private PostfixExpressionCompiler promoted;
+
+    @BeforeEach
+    void setUp() {
+        operationRegistry = new OperationRegistry();
+        tokenizer = new BasicExpressionTokenizer(operationRegistry);
+        interpreted = new PostfixExpressionCompiler(operationRegistry, new ProgramShapes(0), false);
+        shapes = new ProgramShapes(1);
+        promoted = new PostfixExpressionCompiler(operationRegistry, shapes, false);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "7", "2 + 3 * 4 - 4", "10 / 2 / 5", "3 * -2 + 6", "2 - 3 - 4", "2147483647 + 1",
+            "1 + 2 * 3 - 4 / 2 + 5 * 6 * 7 - 8 / 4 / 2 + 9 - 10 + 11 * 12 - 13 + 14 / 7",
+            "-(2 + 3) * (4 - -5) ^ 2", "2 ^ 3 ^ 2 - - (1)"
+    })
+    void shouldMatchInterpreterOnceGenerated(String expression) {
+        CompiledExpression compiled = promoted.compile(tokens(expression));
+        int first = compiled.evaluate();
+        int second = compiled.evaluate();
+
+        assertEquals(interpreted.compile(tokens(expression)).evaluate(), first);
+        assertEquals(first, second);
+        assertNotNull(shapes.shapeOf(program(expression)).generated());
+    }
+
+    @Test
+    void shouldPropagateErrorsFromGeneratedCode() {
+        CompiledExpression expression = promoted.compile(tokens("5 + 10 / 0"));
+        assertThrows(ArithmeticException.class, expression::evaluate);
+        assertNotNull(shapes.shapeOf(program("5 + 10 / 0")).generated());
+
+        ArithmeticException exception = assertThrows(ArithmeticException.class, expression::evaluate);
+        assertEquals("Division by zero", exception.getMessage());
+    }
+
+    @Test
+    void shouldShareShapeAcrossConstants() {
+        var shapes = new ProgramShapes(3);
+        var compiler = new PostfixExpressionCompiler(operationRegistry, shapes, false);
+
+        compiler.compile(tokens("2 * 3 + 4")).evaluate();
+        compiler.compile(tokens("7 * 9 + 1")).evaluate();
+        CompiledExpression third = compiler.compile(tokens("5 * 5 + 5"));
+        assertEquals(30, third.evaluate());
+
+        assertEquals(1, shapes.size());
+        assertEquals(64, compiler.compile(tokens("7 * 9 + 1")).evaluate());
+    }
+
+    @Test
+    void shouldNotGenerateOversizedPrograms() {
+        List<String> tokens = tokens(String.join(" + ",
+                Collections.nCopies(ProgramShapes.MAX_GENERATED_INSTRUCTIONS, "1")));
+
+        CompiledExpression expression = promoted.compile(tokens);
+
+        assertEquals(ProgramShapes.MAX_GENERATED_INSTRUCTIONS, expression.evaluate());
+        assertEquals(0, shapes.size());
+    }
+
+    @Test
+    void shouldUnloadGeneratedClassOnceUnreachable() throws InterruptedException {
+        WeakReference<Class<?>> generatedClass = generateAndDrop();
+
+        for (int i = 0; i < 50 && generatedClass.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+
+        assertNull(generatedClass.get());
+    }
+
+    private WeakReference<Class<?>> generateAndDrop() {
+        CompiledExpression expression = promoted.compile(tokens("1 + 2 * 3"));
+        expression.evaluate();
+        return new WeakReference<>(shapes.shapeOf(program("1 + 2 * 3")).generated().getClass());
+    }
+
+    private Operation[] program(String expression) {
+        // Captures the program the compiler builds so the test can look its shape up again
+        var recorder = new Operation[1][];
+        var compiler = new PostfixExpressionCompiler(operationRegistry, new ProgramShapes(Integer.MAX_VALUE) {
+            @Override
+            ProgramShape shapeOf(Operation[] program) {
+                recorder[0] = program.clone();
+                return null;
+            }
+        }, false);
+        compiler.compile(tokens(expression));
+        return recorder[0];
+    }
+
+    private List<String> tokens(String expression) {
+        return tokenizer.tokenize(expression);
+    }
+}
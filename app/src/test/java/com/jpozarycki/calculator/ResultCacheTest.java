@@ -0,0 +1,169 @@
+package com.jpozarycki.calculator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Collections;
+import java.util.OptionalInt;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultCacheTest {
+    private final OperationRegistry operationRegistry = new OperationRegistry();
+    private final ShuntingYardEvaluator evaluator = new ShuntingYardEvaluator(operationRegistry);
+    private final BasicExpressionTokenizer tokenizer = new BasicExpressionTokenizer(operationRegistry);
+    private final AtomicInteger evaluations = new AtomicInteger();
+    private final List<ResultCache.Outcome> outcomes = Collections.synchronizedList(new ArrayList<>());
+
+    @TempDir
+    Path sharedDirectory;
+
+    @Test
+    void shouldEvaluateRepeatedExpressionOnce() {
+        ResultCache cache = new ResultCache(100, 1024, null);
+
+        assertEquals(14, cache.get("2 + 3 * 4", operationRegistry.operatorTable(), this::evaluate, outcomes::add));
+        assertEquals(14, cache.get("  2 +  3 * 4 ", operationRegistry.operatorTable(), this::evaluate, outcomes::add));
+        assertEquals(1, evaluations.get());
+        assertEquals(List.of(ResultCache.Outcome.MISS, ResultCache.Outcome.HIT), outcomes);
+    }
+
+    @Test
+    void shouldShareOneEvaluationBetweenConcurrentCallers() throws Exception {
+        ResultCache cache = new ResultCache(100, 1024, null);
+        CountDownLatch release = new CountDownLatch(1);
+        ToIntFunction<String> slowEvaluation = expression -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return evaluate(expression);
+        };
+
+        List<Thread> callers = new ArrayList<>();
+        List<Future<Integer>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8, runnable -> {
+            Thread thread = new Thread(runnable);
+            callers.add(thread);
+            return thread;
+        })) {
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.get("6 * 7", operationRegistry.operatorTable(), slowEvaluation, outcomes::add)));
+            }
+            // One caller waits on the latch and the others on its pending result
+            while (callers.size() < 8 || callers.stream().anyMatch(thread -> thread.getState() != Thread.State.WAITING)) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+            for (Future<Integer> result : results) {
+                assertEquals(42, result.get());
+            }
+        }
+        assertEquals(1, evaluations.get());
+        assertEquals(1, Collections.frequency(outcomes, ResultCache.Outcome.MISS));
+        assertEquals(7, Collections.frequency(outcomes, ResultCache.Outcome.COALESCED));
+    }
+
+    @Test
+    void shouldNotCacheFailures() {
+        ResultCache cache = new ResultCache(100, 1024, new DirectoryResultStore(sharedDirectory, Duration.ZERO));
+
+        var error = assertThrows(ArithmeticException.class,
+                () -> cache.get("1 / 0", operationRegistry.operatorTable(), this::evaluate, outcomes::add));
+        assertEquals("Division by zero", error.getMessage());
+        assertThrows(ArithmeticException.class, () -> cache.get("1 / 0", operationRegistry.operatorTable(), this::evaluate, outcomes::add));
+        assertEquals(2, evaluations.get());
+    }
+
+    @Test
+    void shouldShareResultsBetweenNodes() {
+        ResultCache first = new ResultCache(100, 1024, new DirectoryResultStore(sharedDirectory, Duration.ofHours(1)));
+        ResultCache second = new ResultCache(100, 1024, new DirectoryResultStore(sharedDirectory, Duration.ofHours(1)));
+
+        assertEquals(-7, first.get("1 - 2 ^ 3", operationRegistry.operatorTable(), this::evaluate, outcomes::add));
+        assertEquals(-7, second.get("1 - 2 ^ 3", operationRegistry.operatorTable(), this::evaluate, outcomes::add));
+        assertEquals(1, evaluations.get());
+        assertEquals(List.of(ResultCache.Outcome.MISS, ResultCache.Outcome.HIT), outcomes);
+    }
+
+    @Test
+    void shouldNotShareResultsBetweenDifferentOperators() {
+        ResultCache first = new ResultCache(100, 1024, new DirectoryResultStore(sharedDirectory, Duration.ofHours(1)));
+        ResultCache second = new ResultCache(100, 1024, new DirectoryResultStore(sharedDirectory, Duration.ofHours(1)));
+        OperatorTable wrapping = operationRegistry.operatorTable();
+        assertEquals(Integer.MIN_VALUE, first.get("2147483647 + 1", wrapping, this::evaluate, outcomes::add));
+
+        operationRegistry.register(new AdditionOperation() {
+            @Override
+            public int execute(int left, int right) {
+                return Math.addExact(left, right);
+            }
+        });
+
+        assertThrows(ArithmeticException.class,
+                () -> second.get("2147483647 + 1", operationRegistry.operatorTable(), this::evaluate, outcomes::add));
+    }
+
+    @Test
+    void shouldExpireSharedEntries() throws Exception {
+        DirectoryResultStore store = new DirectoryResultStore(sharedDirectory, Duration.ofMinutes(1));
+        store.put("key", 5);
+        assertEquals(OptionalInt.of(5), store.get("key"));
+
+        try (Stream<Path> files = Files.walk(sharedDirectory)) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(Duration.ofMinutes(2))));
+            }
+        }
+
+        assertEquals(OptionalInt.empty(), store.get("key"));
+        assertEquals(OptionalInt.empty(), store.get("other"));
+    }
+
+    @Test
+    void shouldEvaluateLocallyWhenSharedStoreFails() {
+        ResultStore broken = new ResultStore() {
+            @Override
+            public OptionalInt get(String key) {
+                throw new IllegalStateException("unreachable");
+            }
+
+            @Override
+            public void put(String key, int result) {
+                throw new IllegalStateException("unreachable");
+            }
+        };
+        ResultCache cache = new ResultCache(100, 1024, broken);
+
+        assertEquals(5, cache.get("2 + 3", operationRegistry.operatorTable(), this::evaluate, outcomes::add));
+        assertEquals(5, cache.get("2 + 3", operationRegistry.operatorTable(), this::evaluate, outcomes::add));
+        assertEquals(1, evaluations.get());
+    }
+
+    @Test
+    void shouldOnlyAcceptShortExpressionsWhenEnabled() {
+        assertTrue(new ResultCache(100, 5, null).accepts("1 + 2"));
+        assertFalse(new ResultCache(100, 5, null).accepts("1 + 23"));
+        assertFalse(new ResultCache(0, 1024, null).accepts("1 + 2"));
+    }
+
+    private int evaluate(String expression) {
+        evaluations.incrementAndGet();
+        return evaluator.evaluate(tokenizer.tokenize(expression));
+    }
+}
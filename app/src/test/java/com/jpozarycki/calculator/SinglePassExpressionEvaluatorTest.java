@@ -0,0 +1,71 @@
+package com.jpozarycki.calculator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvFileSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SinglePassExpressionEvaluatorTest {
+    private CalculatorService pipeline;
+    private CalculatorService singlePass;
+
+    @BeforeEach
+    void setUp() {
+        var operationRegistry = new OperationRegistry();
+        pipeline = CalculatorServices.pipeline(operationRegistry).build();
+        singlePass = CalculatorServices.pipeline(operationRegistry).evaluationMode(EvaluationMode.SINGLE_PASS).build();
+    }
+
+    @ParameterizedTest
+    @CsvFileSource(resources = {
+            "/calculator/basic-arithmetic.csv",
+            "/calculator/order-of-operations.csv",
+            "/calculator/negative-numbers.csv",
+            "/calculator/complex-expressions.csv",
+            "/calculator/edge-cases.csv",
+            "/calculator/grouping-and-powers.csv"
+    }, numLinesToSkip = 1)
+    @DisplayName("Single pass: {0} = {1}")
+    void shouldEvaluateLikePipeline(String expression, int expected) {
+        assertEquals(expected, singlePass.calculate(expression));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "", "   ", "2 +", "+ 2", "2 + + 3", "abc", "2 & 3", "2 3", "--3", "2 - - 3", "2 -- 3",
+            "3 -2", "3-2", "2*-3", "10 / 0", "5 * 2 / 0", "1 / 0 + 99999999999", "99999999999 + 1 / 0",
+            "2147483647 + 1", "-2147483648", "2147483648", "-2147483649", "1 / 0 +", "1 / 0 2",
+            "1 2 / 0", "\t2 + 3\n", "2\t+ 3", "٣ + 1", "1 + ٣", "-", "- 3", "2 * - 3", "7 / -0",
+            "0000012 * 3", "1 + 2 * 3 - 4 / 2 * 7 - -8",
+            "(2 + 3", "2 + 3)", "()", "(", ")", "2 (3)", "(2 +) 3", ")2 + 3(", "(1 / 0", "1 / 0)", "(1 / 0) + (",
+            "-(2147483648)", "- 2147483648", "-(-2147483648)", "(-2147483648)", "-(5)", "--(5)", "-(-(5))",
+            "2 ^ 31", "2 ^ 3 ^ 2", "-2 ^ 2", "2 ^ -2", "0 ^ -1", "(0 ^ -1", "* (2)", "(* 2)", "+", "+(+2)",
+            "2 + (3 * (4 - 1)) / (7 - 7)", "2 ^ 2 ^ -1", "((((1))))", "1 + (2 3)", "(1) (2)", "2 -(3)"
+    })
+    @DisplayName("Single pass matches pipeline for '{0}'")
+    void shouldMatchPipelineResultsAndErrors(String expression) {
+        Object expected = outcome(pipeline, expression);
+        Object actual = outcome(singlePass, expression);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void shouldEvaluateDeeplyNestedExpressionsIteratively() {
+        int depth = 200_000;
+
+        assertEquals(-1, singlePass.calculate("(".repeat(depth) + "-1" + ")".repeat(depth)));
+        assertEquals(outcome(pipeline, "(".repeat(depth) + "1"), outcome(singlePass, "(".repeat(depth) + "1"));
+    }
+
+    private static Object outcome(CalculatorFacade calculator, String expression) {
+        try {
+            return calculator.calculate(expression);
+        } catch (RuntimeException e) {
+            return e.getClass().getName() + ": " + e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.jpozarycki.calculator;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+// key=value options: url, clients, slowClients, slowByteIntervalMillis, warmupSeconds, durationSeconds,
+// expression and label; usage is in the README
+public final class CalculatorLoadTest {
+    private final URI uri;
+    private final int clients;
+    private final int slowClients;
+    private final Duration slowByteInterval;
+    private final Duration warmup;
+    private final Duration duration;
+    private final String body;
+    private final String label;
+
+    private CalculatorLoadTest(Map<String, String> options) {
+        this.uri = URI.create(options.getOrDefault("url", "http://localhost:8080") + "/api/calculate");
+        this.clients = Integer.parseInt(options.getOrDefault("clients", "64"));
+        this.slowClients = Integer.parseInt(options.getOrDefault("slowClients", "400"));
+        this.slowByteInterval = Duration.ofMillis(Long.parseLong(options.getOrDefault("slowByteIntervalMillis", "100")));
+        this.warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmupSeconds", "5")));
+        this.duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("durationSeconds", "30")));
+        this.body = "{\"expression\":\"" + options.getOrDefault("expression", "2 + 3 * 4 - 10 / 5 * -3") + "\"}";
+        this.label = options.getOrDefault("label", uri.getAuthority());
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator > 0) {
+                options.put(arg.substring(0, separator), arg.substring(separator + 1));
+            }
+        }
+        new CalculatorLoadTest(options).run();
+    }
+
+    private void run() throws Exception {
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long deadline = measureFrom + duration.toNanos();
+        AtomicLong errors = new AtomicLong();
+        AtomicLong slowRequests = new AtomicLong();
+
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < slowClients; i++) {
+                threads.submit(() -> trickle(deadline, slowRequests));
+            }
+
+            Future<String> footprint = threads.submit(() -> {
+                Thread.sleep(Duration.ofNanos(Math.max(0, deadline - System.nanoTime() - 1_000_000_000L)));
+                return footprint();
+            });
+
+            List<Future<long[]>> latencies = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                latencies.add(threads.submit(() -> hammer(measureFrom, deadline, errors)));
+            }
+
+            long[] merged = new long[0];
+            for (Future<long[]> latency : latencies) {
+                long[] recorded = latency.get();
+                int offset = merged.length;
+                merged = Arrays.copyOf(merged, offset + recorded.length);
+                System.arraycopy(recorded, 0, merged, offset, recorded.length);
+            }
+            String serverFootprint = footprint.get();
+            threads.shutdownNow();
+            report(merged, errors.get(), slowRequests.get());
+            System.out.println(serverFootprint);
+        }
+    }
+
+    // One keep-alive connection per client, so every request reuses its socket like a pooled client would
+    private long[] hammer(long measureFrom, long deadline, AtomicLong errors) {
+        byte[] request = request(false);
+        long[] latencies = new long[1024];
+        int count = 0;
+        Socket socket = null;
+        InputStream input = null;
+
+        long now;
+        while ((now = System.nanoTime()) < deadline) {
+            int status;
+            try {
+                if (socket == null) {
+                    socket = connect();
+                    input = new BufferedInputStream(socket.getInputStream());
+                }
+                socket.getOutputStream().write(request);
+                status = readResponse(input);
+                if (status < 0) {
+                    // Tomcat closes keep-alive connections after a number of requests
+                    status = -status;
+                    closeQuietly(socket);
+                    socket = null;
+                }
+            } catch (IOException e) {
+                status = -1;
+                closeQuietly(socket);
+                socket = null;
+            }
+            long finished = System.nanoTime();
+            if (now < measureFrom) {
+                continue;
+            }
+            if (status != 200) {
+                errors.incrementAndGet();
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = finished - now;
+        }
+        closeQuietly(socket);
+        return Arrays.copyOf(latencies, count);
+    }
+
+    private Void trickle(long deadline, AtomicLong slowRequests) {
+        byte[] request = request(true);
+        int headerLength = request.length - body.length();
+
+        while (System.nanoTime() < deadline) {
+            try (Socket socket = connect()) {
+                OutputStream output = socket.getOutputStream();
+                output.write(request, 0, headerLength);
+                output.flush();
+                for (int i = headerLength; i < request.length; i++) {
+                    byte b = request[i];
+                    Thread.sleep(slowByteInterval);
+                    output.write(b);
+                    output.flush();
+                }
+                InputStream input = socket.getInputStream();
+                while (input.read() >= 0) {
+                    // Drain the response until the server closes the connection
+                }
+                slowRequests.incrementAndGet();
+            } catch (IOException e) {
+                // The server may drop a stalled connection; just open a new one
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private byte[] request(boolean close) {
+        return ("POST " + uri.getPath() + " HTTP/1.1\r\n"
+                + "Host: " + uri.getAuthority() + "\r\n"
+                + "Content-Type: application/json\r\n"
+                + "Content-Length: " + body.length() + "\r\n"
+                + (close ? "Connection: close\r\n" : "")
+                + "\r\n" + body).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.connect(new InetSocketAddress(uri.getHost(), uri.getPort() > 0 ? uri.getPort() : 80));
+        return socket;
+    }
+
+    // Reads one response and returns its status, negated when the server is closing the connection
+    private static int readResponse(InputStream input) throws IOException {
+        String statusLine = readLine(input);
+        int status = Integer.parseInt(statusLine.substring(9, 12));
+        int contentLength = 0;
+        boolean chunked = false;
+        boolean close = false;
+        String header;
+        while (!(header = readLine(input)).isEmpty()) {
+            String name = header.substring(0, header.indexOf(':')).trim();
+            String value = header.substring(header.indexOf(':') + 1).trim();
+            if (name.equalsIgnoreCase("Content-Length")) {
+                contentLength = Integer.parseInt(value);
+            } else if (name.equalsIgnoreCase("Transfer-Encoding") && value.equalsIgnoreCase("chunked")) {
+                chunked = true;
+            } else if (name.equalsIgnoreCase("Connection") && value.equalsIgnoreCase("close")) {
+                close = true;
+            }
+        }
+        if (!chunked) {
+            input.readNBytes(contentLength);
+            return close ? -status : status;
+        }
+        int chunkSize;
+        while ((chunkSize = Integer.parseInt(readLine(input), 16)) > 0) {
+            input.readNBytes(chunkSize);
+            readLine(input);
+        }
+        readLine(input);
+        return close ? -status : status;
+    }
+
+    private static String readLine(InputStream input) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int ch;
+        while ((ch = input.read()) != '\n') {
+            if (ch < 0) {
+                throw new IOException("Connection closed mid-response");
+            }
+            if (ch != '\r') {
+                line.append((char) ch);
+            }
+        }
+        return line.toString();
+    }
+
+    private static void closeQuietly(Socket socket) {
+        if (socket == null) {
+            return;
+        }
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Nothing left to do with a broken connection
+        }
+    }
+
+    // Server-side memory and thread counts, sampled a second before the load stops
+    private String footprint() {
+        URI prometheus = uri.resolve("/actuator/prometheus");
+        try (HttpClient httpClient = HttpClient.newHttpClient()) {
+            String metrics = httpClient.send(HttpRequest.newBuilder(prometheus).GET().build(), HttpResponse.BodyHandlers.ofString()).body();
+            return String.format("server: heap %.1f MB, non-heap %.1f MB, live threads %.0f",
+                    sum(metrics, "jvm_memory_used_bytes{area=\"heap\"") / 1e6,
+                    sum(metrics, "jvm_memory_used_bytes{area=\"nonheap\"") / 1e6,
+                    sum(metrics, "jvm_threads_live_threads"));
+        } catch (IOException | InterruptedException e) {
+            return "server: footprint unavailable from " + prometheus;
+        }
+    }
+
+    private static double sum(String metrics, String prefix) {
+        return metrics.lines()
+                .filter(line -> line.startsWith(prefix))
+                .mapToDouble(line -> Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1)))
+                .sum();
+    }
+
+    private void report(long[] latencies, long errors, long slowRequests) {
+        Arrays.sort(latencies);
+        double seconds = duration.toNanos() / 1e9;
+        System.out.printf("%-24s %10s %12s %10s %10s %10s %10s %8s %8s%n",
+                "label", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "errors", "slow");
+        System.out.printf("%-24s %10d %12.1f %10.3f %10.3f %10.3f %10.3f %8d %8d%n",
+                label, latencies.length, latencies.length / seconds,
+                percentile(latencies, 0.5), percentile(latencies, 0.99), percentile(latencies, 0.999),
+                latencies.length > 0 ? latencies[latencies.length - 1] / 1e6 : 0.0,
+                errors, slowRequests);
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
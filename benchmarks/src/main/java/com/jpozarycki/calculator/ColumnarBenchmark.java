@@ -0,0 +1,89 @@
+package com.jpozarycki.calculator;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// One expression over a million rows: row by row through the compiled program, then column at a time
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Benchmark)
+public class ColumnarBenchmark {
+    @Param({"1000000"})
+    public int rows;
+
+    @Param({"a * b + c - d", "a * b - c / (d + 1)"})
+    public String expression;
+
+    private CalculatorService service;
+    private ColumnarCalculator scalar;
+    private ColumnarCalculator vector;
+    private PreparedExpression prepared;
+    private int[][] columns;
+    private int[] row;
+    private int[] results;
+
+    @Setup
+    public void setUp() {
+        var operationRegistry = new OperationRegistry();
+        var tokenizer = new BasicExpressionTokenizer(operationRegistry);
+        service = new CalculatorService(operationRegistry, new ShuntingYardEvaluator(operationRegistry), tokenizer,
+                new BasicExpressionValidator(), new PostfixExpressionCompiler(operationRegistry, new ProgramShapes(0), true),
+                new CompiledExpressionCache(0, 0), new SinglePassExpressionEvaluator(operationRegistry),
+                new NumericExpressionEvaluator(operationRegistry, 34, RoundingMode.HALF_EVEN, -1),
+                EvaluationMode.PIPELINE, new CalculatorMetrics(new SimpleMeterRegistry()), new ResultCache(0, 0, null));
+        scalar = new ColumnarCalculator(false);
+        vector = new ColumnarCalculator(true);
+        prepared = service.prepare(expression);
+        Random random = new Random(42);
+        columns = new int[prepared.variables().size()][rows];
+        for (int[] column : columns) {
+            for (int i = 0; i < rows; i++) {
+                column[i] = random.nextInt(2_000) - 1_000;
+            }
+        }
+        row = new int[columns.length];
+        results = new int[rows];
+    }
+
+    @Benchmark
+    public int[] perRow() {
+        for (int i = 0; i < rows; i++) {
+            for (int column = 0; column < columns.length; column++) {
+                row[column] = columns[column][i];
+            }
+            try {
+                results[i] = service.evaluate(prepared, row);
+            } catch (ArithmeticException e) {
+                results[i] = 0;
+            }
+        }
+        return results;
+    }
+
+    @Benchmark
+    public ColumnarResult scalarColumns() {
+        return scalar.evaluate(prepared, columns);
+    }
+
+    @Benchmark
+    public ColumnarResult vectorColumns() {
+        return vector.evaluate(prepared, columns);
+    }
+}
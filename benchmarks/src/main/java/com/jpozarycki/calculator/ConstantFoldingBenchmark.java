@@ -0,0 +1,94 @@
+package com.jpozarycki.calculator;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Expressions shaped like generated ones, full of x * 1, + 0, 0 * (...) and runs of literals
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConstantFoldingBenchmark {
+    private static final String[] TERMS = {
+            "%s * 1", "(%s + 0)", "2 * 3 * %s", "%s - 4 + 1", "0 * (%s - 7)", "%s / 1", "%s ^ 1",
+            "(1 + 2 + 3) * %s", "%s", "5", "-(%s + 2)"
+    };
+    private static final String[] VARIABLES = {"a", "b", "c", "d"};
+    private static final String[] OPERATORS = {" + ", " - ", " * "};
+
+    @Param({"10", "1000"})
+    public int terms;
+
+    private PreparedExpression folded;
+    private PreparedExpression unfolded;
+    private CalculatorService foldingService;
+    private CalculatorService plainService;
+    private final int[] values = {3, -7, 11, 2};
+
+    @Setup
+    public void setUp() {
+        foldingService = service(true);
+        plainService = service(false);
+        String expression = generate(terms);
+        folded = foldingService.prepare(expression);
+        unfolded = plainService.prepare(expression);
+    }
+
+    @Benchmark
+    public int evaluateFolded(Instructions instructions) {
+        instructions.instructions += folded.compiled().instructionCount();
+        return foldingService.evaluate(folded, values);
+    }
+
+    @Benchmark
+    public int evaluateUnfolded(Instructions instructions) {
+        instructions.instructions += unfolded.compiled().instructionCount();
+        return plainService.evaluate(unfolded, values);
+    }
+
+    // Reported next to each score as program instructions executed per microsecond
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Instructions {
+        public long instructions;
+    }
+
+    static String generate(int terms) {
+        Random random = new Random(42);
+        StringBuilder expression = new StringBuilder();
+        for (int i = 0; i < terms; i++) {
+            if (i > 0) {
+                expression.append(OPERATORS[random.nextInt(OPERATORS.length)]);
+            }
+            expression.append(TERMS[random.nextInt(TERMS.length)].formatted(VARIABLES[random.nextInt(VARIABLES.length)]));
+        }
+        return expression.toString();
+    }
+
+    private static CalculatorService service(boolean constantFolding) {
+        var operationRegistry = new OperationRegistry();
+        return new CalculatorService(operationRegistry, new ShuntingYardEvaluator(operationRegistry),
+                new BasicExpressionTokenizer(operationRegistry), new BasicExpressionValidator(),
+                new PostfixExpressionCompiler(operationRegistry, new ProgramShapes(0), constantFolding),
+                new CompiledExpressionCache(0, 0), new SinglePassExpressionEvaluator(operationRegistry),
+                new NumericExpressionEvaluator(operationRegistry, 34, RoundingMode.HALF_EVEN, -1),
+                EvaluationMode.PIPELINE, new CalculatorMetrics(new SimpleMeterRegistry()), new ResultCache(0, 0, null));
+    }
+}
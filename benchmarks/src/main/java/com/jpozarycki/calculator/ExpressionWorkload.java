@@ -0,0 +1,68 @@
+package com.jpozarycki.calculator;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Random;
+
+// Operands are 1 to 999 and groups never follow a division, so no workload divides by zero
+@State(Scope.Benchmark)
+public class ExpressionWorkload {
+    private static final long SEED = 42;
+
+    @Param({"3", "101", "10001", "100001"})
+    public int tokens;
+
+    @Param({"ADDITIVE", "MULTIPLICATIVE", "MIXED"})
+    public OperatorMix operatorMix;
+
+    @Param({"0.0", "0.25"})
+    public double negativeDensity;
+
+    @Param({"0.0", "0.1"})
+    public double groupingDensity;
+
+    public String expression;
+    public List<String> tokenList;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        expression = generate(tokens, operatorMix, negativeDensity, groupingDensity);
+        tokenList = new BasicExpressionTokenizer(new OperationRegistry()).tokenize(expression);
+    }
+
+    static String generate(int tokens, OperatorMix operatorMix, double negativeDensity, double groupingDensity) {
+        Random random = new Random(SEED);
+        int operands = (tokens + 1) / 2;
+        StringBuilder expression = new StringBuilder(operands * 8);
+        int open = appendOperand(expression, random, negativeDensity, groupingDensity, 0);
+        for (int i = 1; i < operands; i++) {
+            String operator = operatorMix.pick(random);
+            expression.append(' ').append(operator).append(' ');
+            open = appendOperand(expression, random, negativeDensity, operator.equals("/") ? 0 : groupingDensity, open);
+        }
+        expression.append(")".repeat(open));
+        return expression.toString();
+    }
+
+    private static int appendOperand(StringBuilder expression, Random random, double negativeDensity,
+                                     double groupingDensity, int open) {
+        if (groupingDensity > 0 && random.nextDouble() < groupingDensity) {
+            expression.append(random.nextBoolean() ? "-(" : "(");
+            open++;
+        }
+        if (random.nextDouble() < negativeDensity) {
+            expression.append('-');
+        }
+        expression.append(1 + random.nextInt(999));
+        if (open > 0 && random.nextDouble() < groupingDensity) {
+            expression.append(')');
+            open--;
+        }
+        return open;
+    }
+}
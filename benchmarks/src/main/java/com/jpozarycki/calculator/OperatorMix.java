@@ -0,0 +1,19 @@
+package com.jpozarycki.calculator;
+
+import java.util.Random;
+
+public enum OperatorMix {
+    ADDITIVE("+", "-"),
+    MULTIPLICATIVE("*", "/"),
+    MIXED("+", "-", "*", "/");
+
+    private final String[] operators;
+
+    OperatorMix(String... operators) {
+        this.operators = operators;
+    }
+
+    String pick(Random random) {
+        return operators[random.nextInt(operators.length)];
+    }
+}
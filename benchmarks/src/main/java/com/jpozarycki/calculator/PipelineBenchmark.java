@@ -0,0 +1,172 @@
+package com.jpozarycki.calculator;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PipelineBenchmark {
+    private OperationRegistry operationRegistry;
+    private BasicExpressionTokenizer tokenizer;
+    private BasicExpressionValidator validator;
+    private ShuntingYardEvaluator evaluator;
+    private CalculatorService pipeline;
+    private CalculatorService cached;
+    private CalculatorService bytecode;
+    private CalculatorService singlePass;
+    private ExpressionSessions sessions;
+
+    @Setup
+    public void setUp() {
+        operationRegistry = new OperationRegistry();
+        tokenizer = new BasicExpressionTokenizer(operationRegistry);
+        validator = new BasicExpressionValidator();
+        evaluator = new ShuntingYardEvaluator(operationRegistry);
+        // Folding would reduce the constant workloads to a single load, leaving nothing to compare
+        var compiler = new PostfixExpressionCompiler(operationRegistry, new ProgramShapes(0), false);
+        var singlePassEvaluator = new SinglePassExpressionEvaluator(operationRegistry);
+        var numericEvaluator = new NumericExpressionEvaluator(operationRegistry, 34, RoundingMode.HALF_EVEN, -1);
+        var metrics = new CalculatorMetrics(new SimpleMeterRegistry());
+        var resultCache = new ResultCache(0, 0, null);
+        pipeline = new CalculatorService(operationRegistry, evaluator, tokenizer, validator, compiler,
+                new CompiledExpressionCache(0, 0), singlePassEvaluator, numericEvaluator, EvaluationMode.PIPELINE, metrics, resultCache);
+        cached = new CalculatorService(operationRegistry, evaluator, tokenizer, validator, compiler,
+                new CompiledExpressionCache(Long.MAX_VALUE, Integer.MAX_VALUE), singlePassEvaluator, numericEvaluator, EvaluationMode.PIPELINE, metrics, resultCache);
+        var promotingCompiler = new PostfixExpressionCompiler(operationRegistry, new ProgramShapes(1), false);
+        bytecode = new CalculatorService(operationRegistry, evaluator, tokenizer, validator, promotingCompiler,
+                new CompiledExpressionCache(Long.MAX_VALUE, Integer.MAX_VALUE), singlePassEvaluator, numericEvaluator, EvaluationMode.PIPELINE, metrics, resultCache);
+        singlePass = new CalculatorService(operationRegistry, evaluator, tokenizer, validator, compiler,
+                new CompiledExpressionCache(0, 0), singlePassEvaluator, numericEvaluator, EvaluationMode.SINGLE_PASS, metrics, resultCache);
+        sessions = new ExpressionSessions(new TermSplitter(tokenizer, validator, evaluator, operationRegistry),
+                pipeline, operationRegistry, 16, Duration.ofHours(1));
+    }
+
+    @Benchmark
+    public List<String> tokenize(ExpressionWorkload workload) {
+        return tokenizer.tokenize(workload.expression);
+    }
+
+    @Benchmark
+    public List<String> validate(ExpressionWorkload workload) {
+        validator.validate(workload.tokenList, operationRegistry);
+        return workload.tokenList;
+    }
+
+    @Benchmark
+    public int evaluate(ExpressionWorkload workload) {
+        return evaluator.evaluate(workload.tokenList);
+    }
+
+    @Benchmark
+    public int calculatePipeline(ExpressionWorkload workload) {
+        return pipeline.calculate(workload.expression);
+    }
+
+    @Benchmark
+    public int calculateCached(ExpressionWorkload workload) {
+        return cached.calculate(workload.expression);
+    }
+
+    @Benchmark
+    public int calculateBytecode(ExpressionWorkload workload) {
+        return bytecode.calculate(workload.expression);
+    }
+
+    @Benchmark
+    public Number calculateLong(ExpressionWorkload workload) {
+        return pipeline.calculate(workload.expression, NumericMode.LONG);
+    }
+
+    @Benchmark
+    public Number calculateDecimal(ExpressionWorkload workload) {
+        return pipeline.calculate(workload.expression, NumericMode.DECIMAL);
+    }
+
+    @Benchmark
+    public int calculateSinglePass(ExpressionWorkload workload) {
+        return singlePass.calculate(workload.expression);
+    }
+
+    // A client flooding garbage: each call gets the next of the workload's corrupted variants
+    @Benchmark
+    public String rejectInvalid(InvalidInput invalid) {
+        try {
+            return String.valueOf(invalid.service.calculate(invalid.next(), NumericMode.INT));
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    public CalculationResult tryCalculateInvalid(InvalidInput invalid) {
+        return invalid.service.tryCalculate(invalid.next(), NumericMode.INT);
+    }
+
+    // Retypes one digit in the middle of the expression, which re-evaluates only the terms around it
+    @Benchmark
+    public int editSession(EditedSession edited) {
+        return edited.session.edit(edited.offset, 1, edited.digit);
+    }
+
+    @State(Scope.Benchmark)
+    public static class EditedSession {
+        private ExpressionSession session;
+        private int offset;
+        private String digit;
+
+        @Setup
+        public void open(PipelineBenchmark benchmark, ExpressionWorkload workload) {
+            String expression = workload.expression;
+            session = benchmark.sessions.open(expression);
+            offset = expression.length() / 2;
+            while (!Character.isDigit(expression.charAt(offset))) {
+                offset++;
+            }
+            digit = expression.substring(offset, offset + 1);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class InvalidInput {
+        private CalculatorService service;
+        private String[] expressions;
+        private int next;
+
+        // An invalid character, a trailing operator, a missing operand, an out-of-range literal and a division by zero
+        @Setup
+        public void corrupt(PipelineBenchmark benchmark, ExpressionWorkload workload) {
+            String expression = workload.expression;
+            int middle = Math.max(expression.indexOf(' ', expression.length() / 2), expression.indexOf(' '));
+            service = benchmark.pipeline;
+            expressions = new String[]{
+                    expression.substring(0, middle) + " & " + expression.substring(middle),
+                    expression + " +",
+                    expression.substring(0, middle) + " * *" + expression.substring(middle),
+                    expression + " + 99999999999",
+                    expression + " / 0"};
+        }
+
+        String next() {
+            next = next == expressions.length - 1 ? 0 : next + 1;
+            return expressions[next];
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.jpozarycki.calculator;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.handler.codec.LengthFieldPrepender;
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
+import io.netty.util.concurrent.EventExecutorGroup;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.net.InetSocketAddress;
+
+// Shares the REST adapters' CalculatorFacade, so caches and operator plugins apply to both
+@Slf4j
+@Component
+@ConditionalOnProperty("calculator.binary.port")
+class BinaryCalculatorServer {
+    private final BinaryRequestHandler handler;
+    private final BinaryRequestDecoder decoder = new BinaryRequestDecoder();
+    private final int port;
+    private final int maxFrameLength;
+    private final int maxPendingRequests;
+    private final EventLoopGroup acceptGroup = new NioEventLoopGroup(1);
+    private final EventLoopGroup ioGroup = new NioEventLoopGroup();
+    private final EventExecutorGroup evaluationGroup;
+    private Channel serverChannel;
+
+    BinaryCalculatorServer(CalculatorFacade calculatorFacade,
+                           MeterRegistry meterRegistry,
+                           @Value("${calculator.binary.port}") int port,
+                           @Value("${calculator.binary.max-frame-length:1048576}") int maxFrameLength,
+                           @Value("${calculator.binary.max-pending-requests:128}") int maxPendingRequests,
+                           @Value("${calculator.binary.parallelism:0}") int parallelism) {
+        this.handler = new BinaryRequestHandler(calculatorFacade, maxFrameLength, meterRegistry);
+        this.port = port;
+        this.maxFrameLength = maxFrameLength;
+        this.maxPendingRequests = maxPendingRequests;
+        this.evaluationGroup = new DefaultEventExecutorGroup(
+                parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PostConstruct
+    void start() throws InterruptedException {
+        serverChannel = new ServerBootstrap()
+                .group(acceptGroup, ioGroup)
+                .channel(NioServerSocketChannel.class)
+                .childOption(ChannelOption.TCP_NODELAY, true)
+                .childHandler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel channel) {
+                        channel.pipeline()
+                                .addLast(new LengthFieldBasedFrameDecoder(maxFrameLength, 0,
+                                        BinaryProtocol.LENGTH_FIELD_LENGTH, 0, BinaryProtocol.LENGTH_FIELD_LENGTH))
+                                .addLast(new LengthFieldPrepender(BinaryProtocol.LENGTH_FIELD_LENGTH))
+                                .addLast(decoder)
+                                .addLast(new BinaryRequestLimiter(maxPendingRequests))
+                                .addLast(evaluationGroup, handler);
+                    }
+                })
+                .bind(port)
+                .sync()
+                .channel();
+        log.info("Binary calculator protocol listening on port {}", port());
+    }
+
+    int port() {
+        return ((InetSocketAddress) serverChannel.localAddress()).getPort();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (serverChannel != null) {
+            serverChannel.close().syncUninterruptibly();
+        }
+        acceptGroup.shutdownGracefully();
+        ioGroup.shutdownGracefully();
+        evaluationGroup.shutdownGracefully();
+    }
+}
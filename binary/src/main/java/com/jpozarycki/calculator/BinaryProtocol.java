@@ -0,0 +1,33 @@
+package com.jpozarycki.calculator;
+
+// Every frame starts with the length of the rest as a 4-byte int; numbers are big-endian, text UTF-8
+// request:  int id | byte mode | expression
+// response: int id | byte status | int, long, digits or error message, by status
+final class BinaryProtocol {
+    static final int LENGTH_FIELD_LENGTH = 4;
+    static final int REQUEST_HEADER_LENGTH = 5;
+
+    static final byte MODE_INT = 0;
+    static final byte MODE_LONG = 1;
+    static final byte MODE_BIG_INTEGER = 2;
+    static final byte MODE_DECIMAL = 3;
+
+    static final byte STATUS_INT = 0;
+    static final byte STATUS_LONG = 1;
+    static final byte STATUS_NUMBER = 2;
+    static final byte STATUS_ERROR = 3;
+
+    private BinaryProtocol() {
+    }
+
+    // Null for an unknown code
+    static NumericMode mode(byte code) {
+        return switch (code) {
+            case MODE_INT -> NumericMode.INT;
+            case MODE_LONG -> NumericMode.LONG;
+            case MODE_BIG_INTEGER -> NumericMode.BIG_INTEGER;
+            case MODE_DECIMAL -> NumericMode.DECIMAL;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,5 @@
+package com.jpozarycki.calculator;
+
+// received is when the frame was read, so latency includes the wait behind earlier requests
+record BinaryRequest(int id, byte mode, String expression, long received) {
+}
@@ -0,0 +1,26 @@
+package com.jpozarycki.calculator;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.MessageToMessageDecoder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@ChannelHandler.Sharable
+class BinaryRequestDecoder extends MessageToMessageDecoder<ByteBuf> {
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf frame, List<Object> out) {
+        long received = System.nanoTime();
+        if (frame.readableBytes() < BinaryProtocol.REQUEST_HEADER_LENGTH) {
+            throw new CorruptedFrameException("Request frame of " + frame.readableBytes() + " bytes");
+        }
+        int id = frame.readInt();
+        byte mode = frame.readByte();
+        String expression = frame.toString(StandardCharsets.UTF_8);
+        out.add(new BinaryRequest(id, mode, expression, received));
+    }
+}
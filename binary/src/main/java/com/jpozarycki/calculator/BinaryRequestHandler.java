@@ -0,0 +1,131 @@
+package com.jpozarycki.calculator;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs on one worker per connection rather than the event loop, so responses keep request order and
+// a long expression does not stall the I/O of other connections
+@Slf4j
+@ChannelHandler.Sharable
+class BinaryRequestHandler extends SimpleChannelInboundHandler<BinaryRequest> {
+    static final String RESULT_TOO_LONG = "Result is longer than the maximum frame length";
+
+    private static final Duration MIN_EXPECTED_DURATION = Duration.ofNanos(500);
+    private static final Duration MAX_EXPECTED_DURATION = Duration.ofSeconds(10);
+
+    private final CalculatorFacade calculatorFacade;
+    private final int maxFrameLength;
+    private final Timer successTimer;
+    private final Timer errorTimer;
+    private final AtomicInteger connections = new AtomicInteger();
+
+    BinaryRequestHandler(CalculatorFacade calculatorFacade, int maxFrameLength, MeterRegistry registry) {
+        this.calculatorFacade = calculatorFacade;
+        this.maxFrameLength = maxFrameLength;
+        this.successTimer = requestTimer(registry, "success");
+        this.errorTimer = requestTimer(registry, "error");
+        registry.gauge("calculator.binary.connections", connections);
+    }
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+        connections.incrementAndGet();
+        super.channelActive(ctx);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        connections.decrementAndGet();
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, BinaryRequest request) {
+        ByteBuf response = ctx.alloc().buffer();
+        response.writeInt(request.id());
+        NumericMode mode = BinaryProtocol.mode(request.mode());
+        CalculationResult result;
+        try {
+            result = mode != null
+                    ? calculatorFacade.tryCalculate(request.expression(), mode)
+                    : new CalculationResult.Failure(ExpressionError.INVALID_EXPRESSION, -1, "Unknown numeric mode: " + request.mode());
+        } catch (Exception e) {
+            result = new CalculationResult.Failure(ExpressionError.INVALID_EXPRESSION, -1, "Invalid expression");
+        }
+        switch (result) {
+            case CalculationResult.Success success -> {
+                writeResult(response, success.value());
+                // Responses are held to the request frame limit, which a big_integer or decimal result can pass
+                if (BinaryProtocol.LENGTH_FIELD_LENGTH + response.readableBytes() > maxFrameLength) {
+                    response.clear().writeInt(request.id());
+                    writeError(response, RESULT_TOO_LONG);
+                    errorTimer.record(System.nanoTime() - request.received(), TimeUnit.NANOSECONDS);
+                } else {
+                    successTimer.record(System.nanoTime() - request.received(), TimeUnit.NANOSECONDS);
+                }
+            }
+            case CalculationResult.Failure failure -> {
+                writeError(response, failure.message());
+                errorTimer.record(System.nanoTime() - request.received(), TimeUnit.NANOSECONDS);
+            }
+        }
+        ctx.write(response);
+        // BinaryRequestLimiter stops reading meanwhile, and there may be no read burst left to end with a flush
+        if (!ctx.channel().isWritable()) {
+            ctx.flush();
+        }
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) {
+        ctx.flush();
+    }
+
+    // Framing errors leave the stream unreadable, so the connection is dropped
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        log.debug("Closing binary connection {}", ctx.channel().remoteAddress(), cause);
+        ctx.close();
+    }
+
+    private static void writeResult(ByteBuf response, Number result) {
+        switch (result) {
+            case Integer value -> response.writeByte(BinaryProtocol.STATUS_INT).writeInt(value);
+            case Long value -> response.writeByte(BinaryProtocol.STATUS_LONG).writeLong(value);
+            case BigDecimal value -> {
+                response.writeByte(BinaryProtocol.STATUS_NUMBER);
+                ByteBufUtil.writeAscii(response, value.toPlainString());
+            }
+            default -> {
+                response.writeByte(BinaryProtocol.STATUS_NUMBER);
+                ByteBufUtil.writeAscii(response, result.toString());
+            }
+        }
+    }
+
+    private static void writeError(ByteBuf response, String message) {
+        response.writeByte(BinaryProtocol.STATUS_ERROR);
+        ByteBufUtil.writeUtf8(response, message != null ? message : "Invalid expression");
+    }
+
+    private static Timer requestTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("calculator.binary.requests")
+                .description("Time from reading a binary request to writing its response")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_EXPECTED_DURATION)
+                .maximumExpectedValue(MAX_EXPECTED_DURATION)
+                .register(registry);
+    }
+}
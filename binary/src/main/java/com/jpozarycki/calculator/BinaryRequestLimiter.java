@@ -0,0 +1,52 @@
+package com.jpozarycki.calculator;
+
+import io.netty.channel.ChannelConfig;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+
+// Stops reading at maxPending unanswered requests or a full outbound buffer, so a client that
+// pipelines faster than it is served is held back by TCP flow control
+class BinaryRequestLimiter extends ChannelDuplexHandler {
+    private final int maxPending;
+    private int pending;
+
+    BinaryRequestLimiter(int maxPending) {
+        this.maxPending = maxPending;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        if (msg instanceof BinaryRequest) {
+            pending++;
+            updateAutoRead(ctx);
+        }
+        ctx.fireChannelRead(msg);
+    }
+
+    // Every response the handler writes answers one request
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+        pending--;
+        ctx.write(msg, promise);
+        updateAutoRead(ctx);
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) {
+        updateAutoRead(ctx);
+        ctx.fireChannelWritabilityChanged();
+    }
+
+    int pending() {
+        return pending;
+    }
+
+    private void updateAutoRead(ChannelHandlerContext ctx) {
+        boolean read = pending < maxPending && ctx.channel().isWritable();
+        ChannelConfig config = ctx.channel().config();
+        if (config.isAutoRead() != read) {
+            config.setAutoRead(read);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.jpozarycki.calculator;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the binary protocol over a real socket.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class BinaryCalculatorServerIntegrationTest {
+
+    @Autowired
+    private BinaryCalculatorServer server;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Socket socket;
+    private DataOutputStream out;
+    private DataInputStream in;
+
+    @BeforeEach
+    void connect() throws IOException {
+        socket = new Socket("localhost", server.port());
+        socket.setSoTimeout(10_000);
+        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+    }
+
+    @AfterEach
+    void disconnect() throws IOException {
+        socket.close();
+    }
+
+    // ========== RESULTS ==========
+
+    @Test
+    void shouldReturnResultsInEveryNumericMode() throws IOException {
+        // Given
+        send(1, BinaryProtocol.MODE_INT, "2 + 3 * 4");
+        send(2, BinaryProtocol.MODE_LONG, "2147483647 + 1");
+        send(3, BinaryProtocol.MODE_BIG_INTEGER, "9223372036854775807 * 2");
+        send(4, BinaryProtocol.MODE_DECIMAL, "1 / 4");
+        out.flush();
+
+        // When & Then
+        assertResponse(1, BinaryProtocol.STATUS_INT);
+        assertEquals(14, in.readInt());
+        assertResponse(2, BinaryProtocol.STATUS_LONG);
+        assertEquals(2147483648L, in.readLong());
+        assertEquals("18446744073709551614", readText(3, BinaryProtocol.STATUS_NUMBER));
+        assertEquals("0.25", readText(4, BinaryProtocol.STATUS_NUMBER));
+    }
+
+    // ========== ERRORS ==========
+
+    @Test
+    void shouldReturnErrorsAndKeepConnectionOpen() throws IOException {
+        // Given
+        send(1, BinaryProtocol.MODE_INT, "1 / 0");
+        send(2, BinaryProtocol.MODE_INT, "2 + * 3");
+        send(3, (byte) 9, "1 + 1");
+        send(4, BinaryProtocol.MODE_INT, "1 + 1");
+        out.flush();
+
+        // When & Then
+        assertEquals("Division by zero", readText(1, BinaryProtocol.STATUS_ERROR));
+        assertFalse(readText(2, BinaryProtocol.STATUS_ERROR).isEmpty());
+        assertEquals("Unknown numeric mode: 9", readText(3, BinaryProtocol.STATUS_ERROR));
+        assertResponse(4, BinaryProtocol.STATUS_INT);
+        assertEquals(2, in.readInt());
+    }
+
+    @Test
+    void shouldCloseConnectionOnOversizedFrame() throws IOException {
+        // Given
+        send(1, BinaryProtocol.MODE_INT, "1 + 1".repeat(400));
+        out.flush();
+
+        // When & Then
+        assertThrows(EOFException.class, in::readInt);
+    }
+
+    @Test
+    void shouldRefuseResultsLongerThanAFrame() throws IOException {
+        // Given
+        send(1, BinaryProtocol.MODE_DECIMAL, "10 ^ 1000");
+        send(2, BinaryProtocol.MODE_BIG_INTEGER, "10 ^ 1100");
+        send(3, BinaryProtocol.MODE_DECIMAL, "10 ^ 999999999");
+        out.flush();
+
+        // When & Then
+        assertEquals(1001, readText(1, BinaryProtocol.STATUS_NUMBER).length());
+        assertEquals(BinaryRequestHandler.RESULT_TOO_LONG, readText(2, BinaryProtocol.STATUS_ERROR));
+        assertEquals("Arithmetic overflow", readText(3, BinaryProtocol.STATUS_ERROR));
+    }
+
+    // ========== PIPELINING ==========
+
+    @Test
+    void shouldAnswerPipelinedRequestsInOrder() throws IOException {
+        // Given
+        double before = meterRegistry.get("calculator.binary.requests").tag("outcome", "success").timer().count();
+        int requests = 10_000;
+
+        // When
+        for (int i = 0; i < requests; i++) {
+            send(i, BinaryProtocol.MODE_INT, i + " * 2 - 1");
+        }
+        out.flush();
+
+        // Then
+        for (int i = 0; i < requests; i++) {
+            assertResponse(i, BinaryProtocol.STATUS_INT);
+            assertEquals(i * 2 - 1, in.readInt());
+        }
+        assertEquals(before + requests,
+                meterRegistry.get("calculator.binary.requests").tag("outcome", "success").timer().count());
+        assertTrue(meterRegistry.get("calculator.binary.connections").gauge().value() >= 1);
+    }
+
+    private void send(int id, byte mode, String expression) throws IOException {
+        byte[] text = expression.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(BinaryProtocol.REQUEST_HEADER_LENGTH + text.length);
+        out.writeInt(id);
+        out.writeByte(mode);
+        out.write(text);
+    }
+
+    // Reads the response header and returns the length of the value that follows
+    private int assertResponse(int id, byte status) throws IOException {
+        int length = in.readInt();
+        assertEquals(id, in.readInt());
+        assertEquals(status, in.readByte());
+        return length - BinaryProtocol.REQUEST_HEADER_LENGTH;
+    }
+
+    private String readText(int id, byte status) throws IOException {
+        int length = assertResponse(id, status);
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,91 @@
+package com.jpozarycki.calculator;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryRequestLimiterTest {
+    private final BinaryRequestLimiter limiter = new BinaryRequestLimiter(4);
+    // Stands in for the evaluation executor, which answers nothing until the test does
+    private final Queue<BinaryRequest> evaluating = new ArrayDeque<>();
+    private final EmbeddedChannel channel = new EmbeddedChannel(
+            new LengthFieldBasedFrameDecoder(1024, 0, BinaryProtocol.LENGTH_FIELD_LENGTH, 0, BinaryProtocol.LENGTH_FIELD_LENGTH),
+            new BinaryRequestDecoder(),
+            limiter,
+            new ChannelInboundHandlerAdapter() {
+                @Override
+                public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                    evaluating.add((BinaryRequest) msg);
+                }
+            });
+
+    @Test
+    void shouldStopReadingOnceTooManyRequestsArePending() {
+        channel.writeInbound(frames(0, 3));
+        assertTrue(channel.config().isAutoRead());
+
+        channel.writeInbound(frames(3, 1));
+
+        assertFalse(channel.config().isAutoRead());
+        assertEquals(4, limiter.pending());
+        assertEquals(4, evaluating.size());
+    }
+
+    @Test
+    void shouldReadAgainAsResponsesAreWritten() {
+        channel.writeInbound(frames(0, 6));
+        assertFalse(channel.config().isAutoRead());
+
+        for (int answered = 0; answered < 2; answered++) {
+            answer();
+            assertFalse(channel.config().isAutoRead());
+        }
+        answer();
+
+        assertTrue(channel.config().isAutoRead());
+        assertEquals(3, limiter.pending());
+    }
+
+    @Test
+    void shouldStopReadingWhileOutboundBufferIsFull() {
+        channel.config().setWriteBufferWaterMark(new WriteBufferWaterMark(8, 16));
+        channel.writeInbound(frames(0, 2));
+
+        channel.write(Unpooled.buffer().writeInt(evaluating.remove().id()).writeZero(32));
+
+        assertFalse(channel.isWritable());
+        assertFalse(channel.config().isAutoRead());
+        channel.flush();
+        assertTrue(channel.config().isAutoRead());
+        assertEquals(1, limiter.pending());
+    }
+
+    private void answer() {
+        BinaryRequest request = evaluating.remove();
+        channel.writeOutbound(Unpooled.buffer().writeInt(request.id()));
+    }
+
+    // A pipelined burst of count requests, numbered from first, arriving in one read
+    private static ByteBuf frames(int first, int count) {
+        ByteBuf frames = Unpooled.buffer();
+        for (int id = first; id < first + count; id++) {
+            byte[] text = (id + " + 1").getBytes(StandardCharsets.UTF_8);
+            frames.writeInt(BinaryProtocol.REQUEST_HEADER_LENGTH + text.length)
+                    .writeInt(id)
+                    .writeByte(BinaryProtocol.MODE_INT)
+                    .writeBytes(text);
+        }
+        return frames;
+    }
+}
@@ -0,0 +1,14 @@
+package com.jpozarycki.calculator;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.context.annotation.ComponentScan;
+
+/**
+ * Test configuration for integration tests in the binary module.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@ComponentScan(basePackages = {"com.jpozarycki.calculator"})
+public class TestConfiguration {
+}
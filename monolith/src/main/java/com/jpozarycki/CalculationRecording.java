@@ -0,0 +1,60 @@
+package com.jpozarycki;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+// The JDK's default profile is merged with calculator.jfc, so calculations sit next to GC and thread events
+@Slf4j
+@Component
+@ConditionalOnProperty("calculator.jfr.output")
+class CalculationRecording {
+    static final String NAME = "calculator";
+
+    private final Recording recording;
+    private final Path output;
+
+    CalculationRecording(@Value("${calculator.jfr.output}") Path output,
+                         @Value("${calculator.jfr.max-age:10m}") Duration maxAge) throws IOException, ParseException {
+        Map<String, String> settings = new HashMap<>(Configuration.getConfiguration("default").getSettings());
+        settings.putAll(calculatorConfiguration().getSettings());
+        this.output = output;
+        this.recording = new Recording(settings);
+        recording.setName(NAME);
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.setDestination(output);
+        recording.start();
+        log.info("Recording calculations to {}, keeping the last {}", output, maxAge);
+    }
+
+    // Stopping writes the recording to its destination
+    @PreDestroy
+    void stop() {
+        recording.stop();
+        recording.close();
+        log.info("Wrote calculation recording to {}", output);
+    }
+
+    private static Configuration calculatorConfiguration() throws IOException, ParseException {
+        try (InputStream stream = CalculationRecording.class.getResourceAsStream("/calculator.jfc");
+             Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+            return Configuration.create(reader);
+        }
+    }
+}
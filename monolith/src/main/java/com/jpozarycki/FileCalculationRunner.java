@@ -0,0 +1,35 @@
+package com.jpozarycki;
+
+import com.jpozarycki.calculator.FileCalculationSummary;
+import com.jpozarycki.calculator.FileCalculatorFacade;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty("calculator.file.input")
+class FileCalculationRunner implements ApplicationRunner {
+    private final FileCalculatorFacade fileCalculatorFacade;
+
+    @Value("${calculator.file.input}")
+    private Path input;
+
+    @Value("${calculator.file.output:#{null}}")
+    private Path output;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        Path target = output != null ? output : Path.of(input + ".out");
+        FileCalculationSummary summary = fileCalculatorFacade.calculate(input, target);
+        log.info("Evaluated {} expressions ({} errors, {} bytes) from {} into {} in {} ms",
+                summary.expressions(), summary.errors(), summary.bytes(), input, target, summary.elapsed().toMillis());
+    }
+}
@@ -0,0 +1,12 @@
+package com.jpozarycki;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+class ReactiveCalculatorApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveCalculatorApplication.class, args);
+    }
+}
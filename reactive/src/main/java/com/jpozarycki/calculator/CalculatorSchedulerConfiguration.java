@@ -0,0 +1,17 @@
+package com.jpozarycki.calculator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+class CalculatorSchedulerConfiguration {
+
+    @Bean(destroyMethod = "dispose")
+    Scheduler calculatorScheduler(@Value("${calculator.reactive.parallelism:0}") int parallelism) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        return Schedulers.newParallel("calculator", threads);
+    }
+}
@@ -0,0 +1,161 @@
+package com.jpozarycki.calculator;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.jpozarycki.calculator.dto.CalculationRequest;
+import com.jpozarycki.calculator.dto.CalculationResponse;
+import com.jpozarycki.calculator.dto.SessionEditRequest;
+import com.jpozarycki.calculator.dto.SessionResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+// Evaluations run on the bounded calculator scheduler, never on an event-loop thread
+@Component
+class ReactiveCalculator {
+    // Same chunking as the servlet batch endpoint: a hop between threads costs more than one evaluation
+    private static final int MIN_CHUNK_SIZE = 64;
+    // Lines pulled ahead of the evaluations, which bounds what a fast client can buffer in the server
+    private static final int STREAM_PREFETCH = 256;
+
+    private final CalculatorFacade calculatorFacade;
+    private final ExpressionSessionFacade sessionFacade;
+    private final Scheduler scheduler;
+    private final ObjectReader requestReader;
+    private final int parallelism;
+    private final int maxBatchSize;
+
+    ReactiveCalculator(CalculatorFacade calculatorFacade,
+                       ExpressionSessionFacade sessionFacade,
+                       @Qualifier("calculatorScheduler") Scheduler scheduler,
+                       ObjectMapper objectMapper,
+                       @Value("${calculator.reactive.parallelism:0}") int parallelism,
+                       @Value("${calculator.batch.max-size:10000}") int maxBatchSize) {
+        this.calculatorFacade = calculatorFacade;
+        this.sessionFacade = sessionFacade;
+        this.scheduler = scheduler;
+        this.requestReader = objectMapper.readerFor(CalculationRequest.class);
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    Mono<CalculationResponse> calculate(String expression, NumericMode mode) {
+        return Mono.fromCallable(() -> respond(expression, mode)).subscribeOn(scheduler);
+    }
+
+    boolean exceedsMaxSize(List<?> items) {
+        return items.size() > maxBatchSize;
+    }
+
+    Mono<List<CalculationResponse>> calculateAll(List<String> expressions, NumericMode mode) {
+        return calculateAll(expressions.size(), i -> respond(expressions.get(i), mode));
+    }
+
+    Mono<PreparedExpression> prepare(String expression) {
+        return Mono.fromCallable(() -> calculatorFacade.prepare(expression)).subscribeOn(scheduler);
+    }
+
+    Mono<List<CalculationResponse>> calculateAll(PreparedExpression expression, List<Map<String, Integer>> bindings) {
+        return calculateAll(bindings.size(), i -> respond(expression, bindings.get(i)));
+    }
+
+    // Chunks are cut by index because a batch may contain null elements, which a Flux cannot carry
+    private Mono<List<CalculationResponse>> calculateAll(int size, IntFunction<CalculationResponse> calculation) {
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, (size + parallelism - 1) / parallelism);
+        int chunks = (size + chunkSize - 1) / chunkSize;
+        return Flux.range(0, chunks)
+                .flatMapSequential(chunk -> Mono.fromCallable(() -> respondAll(
+                                calculation, chunk * chunkSize, Math.min((chunk + 1) * chunkSize, size)))
+                        .subscribeOn(scheduler), parallelism)
+                .flatMapIterable(responses -> responses)
+                .collectList();
+    }
+
+    Mono<SessionResponse> openSession(String expression) {
+        return Mono.fromCallable(() -> {
+            ExpressionSession session = sessionFacade.open(expression);
+            return respond(session, session::value);
+        }).subscribeOn(scheduler);
+    }
+
+    // Empty when the session does not exist or has expired
+    Mono<SessionResponse> editSession(String id, SessionEditRequest edit) {
+        return Mono.fromCallable(() -> sessionFacade.find(id)
+                .map(session -> respond(session, () -> session.edit(edit.offset(), edit.deleted(), edit.inserted())))
+                .orElse(null)).subscribeOn(scheduler);
+    }
+
+    boolean closeSession(String id) {
+        return sessionFacade.close(id);
+    }
+
+    Flux<CalculationResponse> calculateLines(Flux<String> lines) {
+        return lines.filter(line -> !line.isBlank())
+                .publishOn(scheduler, STREAM_PREFETCH)
+                .map(this::respondToLine);
+    }
+
+    private CalculationResponse respondToLine(String line) {
+        String expression = line;
+        NumericMode mode = NumericMode.INT;
+        if (line.stripLeading().startsWith("{")) {
+            try {
+                CalculationRequest request = requestReader.readValue(line);
+                expression = request.expression();
+                mode = request.mode();
+            } catch (JsonProcessingException e) {
+                return new CalculationResponse(null, "Invalid request");
+            }
+        }
+        return respond(expression, mode);
+    }
+
+    private static List<CalculationResponse> respondAll(IntFunction<CalculationResponse> calculation, int from, int to) {
+        List<CalculationResponse> responses = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            responses.add(calculation.apply(i));
+        }
+        return responses;
+    }
+
+    private CalculationResponse respond(String expression, NumericMode mode) {
+        try {
+            return CalculationResponse.from(calculatorFacade.tryCalculate(expression, mode));
+        } catch (Exception e) {
+            return new CalculationResponse(null, "Invalid expression");
+        }
+    }
+
+    private CalculationResponse respond(PreparedExpression expression, Map<String, Integer> values) {
+        return respond(() -> calculatorFacade.evaluate(expression, values != null ? values : Map.of()));
+    }
+
+    private static SessionResponse respond(ExpressionSession session, IntSupplier evaluation) {
+        try {
+            return new SessionResponse(session.id(), evaluation.getAsInt(), null);
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            return new SessionResponse(session.id(), null, e.getMessage());
+        }
+    }
+
+    private static CalculationResponse respond(Supplier<Number> calculation) {
+        try {
+            return new CalculationResponse(calculation.get(), null);
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            return new CalculationResponse(null, e.getMessage());
+        } catch (Exception e) {
+            return new CalculationResponse(null, "Invalid expression");
+        }
+    }
+}
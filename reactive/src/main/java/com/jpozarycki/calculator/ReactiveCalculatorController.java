@@ -0,0 +1,87 @@
+package com.jpozarycki.calculator;
+
+import com.jpozarycki.calculator.dto.BatchCalculationRequest;
+import com.jpozarycki.calculator.dto.CalculationRequest;
+import com.jpozarycki.calculator.dto.CalculationResponse;
+import com.jpozarycki.calculator.dto.PreparedCalculationRequest;
+import com.jpozarycki.calculator.dto.SessionEditRequest;
+import com.jpozarycki.calculator.dto.SessionRequest;
+import com.jpozarycki.calculator.dto.SessionResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/calculate")
+class ReactiveCalculatorController {
+    private final ReactiveCalculator reactiveCalculator;
+
+    @PostMapping
+    Mono<ResponseEntity<CalculationResponse>> calculate(@RequestBody @Valid CalculationRequest request) {
+        return reactiveCalculator.calculate(request.expression(), request.mode())
+                .map(response -> response.error() == null
+                        ? ResponseEntity.ok(response)
+                        : ResponseEntity.badRequest().body(response));
+    }
+
+    @PostMapping("/batch")
+    Mono<ResponseEntity<List<CalculationResponse>>> calculateBatch(@RequestBody @Valid BatchCalculationRequest request) {
+        if (reactiveCalculator.exceedsMaxSize(request.expressions())) {
+            return Mono.just(ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build());
+        }
+        return reactiveCalculator.calculateAll(request.expressions(), request.mode()).map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/prepared")
+    Mono<ResponseEntity<?>> calculatePrepared(@RequestBody @Valid PreparedCalculationRequest request) {
+        if (reactiveCalculator.exceedsMaxSize(request.bindings())) {
+            return Mono.just(ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build());
+        }
+        return reactiveCalculator.prepare(request.expression())
+                .flatMap(expression -> reactiveCalculator.calculateAll(expression, request.bindings()))
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(
+                        ResponseEntity.badRequest().body(new CalculationResponse(null, e.getMessage()))));
+    }
+
+    // An invalid expression is a normal state while typing, so it is reported with 200 like a valid one
+    @PostMapping("/sessions")
+    Mono<ResponseEntity<SessionResponse>> openSession(@RequestBody @Valid SessionRequest request) {
+        return reactiveCalculator.openSession(request.expression())
+                .map(response -> ResponseEntity.status(HttpStatus.CREATED).body(response));
+    }
+
+    @PostMapping("/sessions/{id}/edits")
+    Mono<ResponseEntity<SessionResponse>> editSession(@PathVariable String id, @RequestBody @Valid SessionEditRequest request) {
+        return reactiveCalculator.editSession(id, request)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .onErrorResume(IndexOutOfBoundsException.class, e -> Mono.just(
+                        ResponseEntity.badRequest().body(new SessionResponse(id, null, e.getMessage()))));
+    }
+
+    @DeleteMapping("/sessions/{id}")
+    ResponseEntity<Void> closeSession(@PathVariable String id) {
+        return reactiveCalculator.closeSession(id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    @PostMapping(value = "/stream",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_PLAIN_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    Flux<CalculationResponse> calculateStream(@RequestBody Flux<String> lines) {
+        return reactiveCalculator.calculateLines(lines);
+    }
+}
@@ -0,0 +1,348 @@
+package com.jpozarycki.calculator;
+
+import com.jpozarycki.calculator.dto.BatchCalculationRequest;
+import com.jpozarycki.calculator.dto.CalculationRequest;
+import com.jpozarycki.calculator.dto.CalculationResponse;
+import com.jpozarycki.calculator.dto.PreparedCalculationRequest;
+import com.jpozarycki.calculator.dto.SessionEditRequest;
+import com.jpozarycki.calculator.dto.SessionRequest;
+import com.jpozarycki.calculator.dto.SessionResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Integration tests for the reactive Calculator API.
+ */
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("test")
+class ReactiveCalculatorControllerIntegrationTest {
+
+    private static final String URI = "/api/calculate";
+    private static final String BATCH_URI = "/api/calculate/batch";
+    private static final String STREAM_URI = "/api/calculate/stream";
+    private static final String PREPARED_URI = "/api/calculate/prepared";
+    private static final String SESSIONS_URI = "/api/calculate/sessions";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    // ========== FULL FLOW INTEGRATION TESTS ==========
+
+    @Test
+    void shouldCalculateSimpleExpressionThroughFullStack() {
+        // Given
+        CalculationRequest request = new CalculationRequest("2 + 3");
+
+        // When & Then
+        webTestClient.post().uri(URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.result").isEqualTo(5)
+                .jsonPath("$.error").doesNotExist();
+    }
+
+    @Test
+    void shouldCalculateWithNegativeNumbersAndOrderOfOperations() {
+        // Given
+        CalculationRequest request = new CalculationRequest("10 / 2 + 3 * -4 - 1");
+
+        // When & Then
+        webTestClient.post().uri(URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.result").isEqualTo(-8);
+    }
+
+    // ========== ERROR HANDLING THROUGH FULL STACK ==========
+
+    @Test
+    void shouldHandleDivisionByZeroThroughFullStack() {
+        // Given
+        CalculationRequest request = new CalculationRequest("10 / 0");
+
+        // When & Then
+        webTestClient.post().uri(URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.result").doesNotExist()
+                .jsonPath("$.error").isEqualTo("Division by zero");
+    }
+
+    @Test
+    void shouldHandleInvalidCharactersThroughFullStack() {
+        // Given
+        CalculationRequest request = new CalculationRequest("2 & 3");
+
+        // When & Then
+        webTestClient.post().uri(URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").value(org.hamcrest.Matchers.containsString("Invalid character"));
+    }
+
+    // ========== VALIDATION THROUGH FULL STACK ==========
+
+    @Test
+    void shouldRejectBlankExpression() {
+        // Given
+        CalculationRequest request = new CalculationRequest("   ");
+
+        // When & Then
+        webTestClient.post().uri(URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    // ========== CONCURRENT REQUEST HANDLING ==========
+
+    @Test
+    void shouldHandleConcurrentRequests() {
+        // Given
+        Flux<Integer> results = Flux.range(0, 200)
+                .flatMap(i -> webTestClient.post().uri(URI)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(new CalculationRequest(i + " * 3"))
+                        .exchange()
+                        .expectStatus().isOk()
+                        .returnResult(CalculationResponse.class)
+                        .getResponseBody()
+                        .map(response -> response.result().intValue()), 32);
+
+        // When & Then
+        StepVerifier.create(results.reduce(0, Integer::sum))
+                .expectNext(IntStream.range(0, 200).map(i -> i * 3).sum())
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldEvaluateInRequestedNumericMode() {
+        // Given
+        CalculationRequest request = new CalculationRequest("10 / 4", NumericMode.DECIMAL);
+
+        // When & Then
+        webTestClient.post().uri(URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.result").isEqualTo(2.5);
+    }
+
+    // ========== BATCH EVALUATION ==========
+
+    @Test
+    void shouldReturnIndexAlignedBatchResults() {
+        // Given
+        BatchCalculationRequest request = new BatchCalculationRequest(
+                Arrays.asList("2 + 3", "10 / 0", "2 + * 3", null, "3 * -2 + 6"));
+
+        // When & Then
+        webTestClient.post().uri(BATCH_URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(5)
+                .jsonPath("$[0].result").isEqualTo(5)
+                .jsonPath("$[1].error").isEqualTo("Division by zero")
+                .jsonPath("$[2].error").exists()
+                .jsonPath("$[3].error").isEqualTo("Expression cannot be empty")
+                .jsonPath("$[4].result").isEqualTo(0);
+    }
+
+    @Test
+    void shouldEvaluateLargeBatchInParallelPreservingOrder() {
+        // Given
+        List<String> expressions = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            expressions.add(i + " * 2");
+        }
+
+        // When & Then
+        webTestClient.post().uri(BATCH_URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new BatchCalculationRequest(expressions))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1000)
+                .jsonPath("$[517].result").isEqualTo(1034)
+                .jsonPath("$[999].result").isEqualTo(1998);
+    }
+
+    @Test
+    void shouldRejectBatchAboveMaximumSize() {
+        // Given
+        BatchCalculationRequest request = new BatchCalculationRequest(Collections.nCopies(2001, "1 + 1"));
+
+        // When & Then
+        webTestClient.post().uri(BATCH_URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isEqualTo(413);
+    }
+
+    // ========== PREPARED EVALUATION ==========
+
+    @Test
+    void shouldEvaluatePreparedExpressionForEachBindingRow() {
+        // Given
+        PreparedCalculationRequest request = new PreparedCalculationRequest("price * qty - discount", Arrays.asList(
+                Map.of("price", 10, "qty", 3, "discount", 5),
+                Map.of("price", 1, "qty", 1),
+                null,
+                Map.of("price", 10, "qty", 0, "discount", 0)));
+
+        // When & Then
+        webTestClient.post().uri(PREPARED_URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(4)
+                .jsonPath("$[0].result").isEqualTo(25)
+                .jsonPath("$[1].error").isEqualTo("Missing value for variable: discount")
+                .jsonPath("$[2].error").isEqualTo("Missing value for variable: price")
+                .jsonPath("$[3].result").isEqualTo(0);
+    }
+
+    @Test
+    void shouldRejectInvalidPreparedExpression() {
+        // Given
+        PreparedCalculationRequest request = new PreparedCalculationRequest("price & qty", List.of(Map.of("price", 1)));
+
+        // When & Then
+        webTestClient.post().uri(PREPARED_URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").value(org.hamcrest.Matchers.containsString("Invalid character"));
+    }
+
+    // ========== INCREMENTAL SESSIONS ==========
+
+    @Test
+    void shouldEvaluateEditsInSession() {
+        // Given
+        SessionResponse opened = webTestClient.post().uri(SESSIONS_URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new SessionRequest("2 + 3 * 4"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(SessionResponse.class)
+                .returnResult().getResponseBody();
+
+        // When & Then
+        webTestClient.post().uri(SESSIONS_URI + "/" + opened.id() + "/edits")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new SessionEditRequest(8, 1, "(4 - 1) * 2"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(opened.id())
+                .jsonPath("$.result").isEqualTo(20);
+        webTestClient.post().uri(SESSIONS_URI + "/" + opened.id() + "/edits")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new SessionEditRequest(0, 0, "* "))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Expression must start with a number");
+        webTestClient.delete().uri(SESSIONS_URI + "/" + opened.id())
+                .exchange()
+                .expectStatus().isNoContent();
+        webTestClient.post().uri(SESSIONS_URI + "/" + opened.id() + "/edits")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new SessionEditRequest(0, 0, "1"))
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    // ========== STREAMING EVALUATION ==========
+
+    @Test
+    void shouldStreamOneResponsePerInputLine() {
+        // Given
+        String body = """
+                2 + 3
+                {"expression": "10 / 0"}
+
+                {"expression": "3 * -2 + 6"}
+                2 & 3
+                {"expression":
+                """;
+
+        // When & Then
+        webTestClient.post().uri(STREAM_URI)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class)
+                .isEqualTo("""
+                        {"result":5,"error":null}
+                        {"result":null,"error":"Division by zero"}
+                        {"result":0,"error":null}
+                        {"result":null,"error":"Invalid character in expression. Please use only digits (0-9), operators (+, -, *, /, ^), parentheses, and spaces."}
+                        {"result":null,"error":"Invalid request"}
+                        """);
+    }
+
+    @Test
+    void shouldStreamPlainTextExpressionsInOrder() {
+        // Given
+        Flux<String> lines = Flux.range(1, 500).map(i -> i + " * 2\n");
+
+        // When
+        Flux<CalculationResponse> responses = webTestClient.post().uri(STREAM_URI)
+                .contentType(MediaType.TEXT_PLAIN)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .body(lines, String.class)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(CalculationResponse.class)
+                .getResponseBody();
+
+        // Then
+        StepVerifier.create(responses.map(CalculationResponse::result))
+                .expectNextSequence(IntStream.rangeClosed(1, 500).map(i -> i * 2).boxed().toList())
+                .verifyComplete();
+    }
+}